@@ -1,3 +1,4 @@
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -10,37 +11,120 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
+import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.StringConverter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 
 public class AlgorithmVisualizer extends Application {
     private static final int CANVAS_WIDTH = 800;
     private static final int CANVAS_HEIGHT = 400;
-    private static final int MAX_ARRAY_SIZE = 100;
+    private static final int MIN_ARRAY_SIZE = 10;
+    private static final int MAX_ARRAY_SIZE = 10_000_000;
     private static final int MIN_DELAY = 1;
     private static final int MAX_DELAY = 500;
+    private static final int MAX_THREADS = 64;
+    private static final int PHASE_PAUSE_STEPS = 20;
+    private static final int EXTERNAL_PREVIEW_SIZE = 200;
+    private static final int FRAME_QUEUE_CAPACITY = 16;
+    private static final int EXPORT_FPS = 60;
+    private static final int EXPORT_SECONDS = 60;
+    private static final int PIXEL_VIEW_THRESHOLD = CANVAS_WIDTH / 2;
+    private static final Color PIXEL_VIEW_BAND = Color.LIGHTBLUE.interpolate(Color.WHITE, 0.6);
+    private static final int HIGHLIGHT_SWEEP_STEPS = CANVAS_WIDTH;
+    private static final int SEARCH_QUERIES = 50;
+    private static final int SEARCH_THROUGHPUT_QUERIES = 1_000_000;
+    private static final Integer[] GRID_SIDES = {64, 256, 1024, 4096};
+    private static final double GRID_WALL_DENSITY = 0.25;
+    private static final int GRID_MAX_WEIGHT = 9;
+    private static final int PATH_PROGRESS_FRAMES = 2000;
+    private static final Integer[] REPLAY_STRIDES = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final long REPLAY_CHECKPOINT_BYTES = 256L << 20;
+    private static final int REPLAY_PROGRESS_STEPS = 10_000;
     
+    private Stage stage;
     private Canvas canvas;
     private GraphicsContext gc;
+    private PerformanceHud hud;
+    private GlyphAtlas valueLabels;
+    private PixelBufferView pixelView;
+    private final FrameChannel frames = new FrameChannel(FRAME_QUEUE_CAPACITY);
+    private AnimationTimer frameTimer;
     private int[] array;
     private int arraySize = 50;
     private int delay = 50;
+    private InputGenerator.Distribution distribution = InputGenerator.Distribution.SHUFFLED;
+    private long seed = new SplittableRandom().nextLong();
+    // Set by Shuffle and cleared when the input is regenerated: the input is then the
+    // generated values in sorted order, shuffled with this seed
+    private boolean shuffled;
+    private long shuffleSeed;
     private AtomicBoolean isRunning = new AtomicBoolean(false);
     private AtomicBoolean isPaused = new AtomicBoolean(false);
     
     // UI Controls
     private ComboBox<String> algorithmComboBox;
+    private ComboBox<PixelBufferView.View> viewComboBox;
+    private PixelBufferView.View view = PixelBufferView.View.BARS;
+    private Spinner<Integer> threadsSpinner;
+    private ComboBox<InputGenerator.Distribution> distributionComboBox;
+    private TextField seedField;
+    private Button newSeedButton;
     private Slider arraySizeSlider;
     private Slider speedSlider;
+    private ComboBox<FrameChannel.Policy> framePolicyComboBox;
     private Button startButton;
     private Button pauseButton;
     private Button resetButton;
     private Button shuffleButton;
+    private Button externalSortButton;
+    private Button exportButton;
+    private Button traceButton;
+    private CheckBox hudCheckBox;
+    private ComboBox<SearchKernels.Algorithm> searchComboBox;
+    private Button searchButton;
+    private ComboBox<Pathfinder.Algorithm> pathComboBox;
+    private ComboBox<Pathfinder.Queue> queueComboBox;
+    private ComboBox<Integer> gridComboBox;
+    private Button pathButton;
+    private CheckBox tlbCheckBox;
+    private Button cacheButton;
+    private Button openTraceButton;
+    private ComboBox<JdkSorts.Sort> jdkComboBox;
+    private Button jdkButton;
+    private Button experimentsButton;
+    private ExperimentWindow experiments;
+    private Slider replaySlider;
+    private ComboBox<Integer> strideComboBox;
+    private volatile int replayStride = REPLAY_STRIDES[0];
+    // Position the user dragged the replay slider to, or -1
+    private volatile long replaySeek = -1;
+    private volatile long replayPosition = -1;
+    private boolean updatingReplaySlider;
+    // The temporary trace of the last JDK sort recording, deleted once its replay closes
+    private volatile Path jdkRecording;
+    // Stall cycles per canvas column from the last cache simulation, drawn over the array
+    private volatile long[] cacheHeat;
+    // Set while a grid is on the canvas in place of the array
+    private volatile Pathfinder pathfinder;
+    // Samples of the file being sorted externally, drawn in place of the array so the
+    // array itself is still there for the next run
+    private volatile int[] externalPreview;
     private Label statusLabel;
     private Label comparisonsLabel;
     private Label swapsLabel;
+    private Label timingLabel;
     private ProgressBar progressBar;
     
     // Algorithm statistics
@@ -48,9 +132,15 @@ public class AlgorithmVisualizer extends Application {
     private volatile int swaps = 0;
     private volatile int currentStep = 0;
     private volatile int totalSteps = 0;
+    private volatile int bufferStart = 0;
+    private volatile int bufferLength = 0;
+    private volatile int[] splitterValues;
+    private volatile int[] bucketStarts;
+    private volatile boolean statsChanged;
 
     @Override
     public void start(Stage primaryStage) {
+        stage = primaryStage;
         primaryStage.setTitle("Java Algorithm Visualizer");
         
         initializeArray();
@@ -66,6 +156,15 @@ public class AlgorithmVisualizer extends Application {
         // Create canvas
         canvas = new Canvas(CANVAS_WIDTH, CANVAS_HEIGHT);
         gc = canvas.getGraphicsContext2D();
+        valueLabels = new GlyphAtlas(Font.font("Arial", FontWeight.BOLD, 12), Color.BLACK);
+        pixelView = new PixelBufferView(CANVAS_WIDTH, CANVAS_HEIGHT, CANVAS_HEIGHT - 50,
+                                        Math.min(4, Runtime.getRuntime().availableProcessors()));
+        
+        // Performance overlay on its own canvas above the bars
+        Canvas hudCanvas = new Canvas(CANVAS_WIDTH, CANVAS_HEIGHT);
+        hud = new PerformanceHud(hudCanvas, () -> (long) comparisons + swaps, frames);
+        hud.setVisible(false);
+        StackPane canvasPane = new StackPane(canvas, hudCanvas);
         
         // Control panel
         VBox controlPanel = createControlPanel();
@@ -73,13 +172,26 @@ public class AlgorithmVisualizer extends Application {
         // Status panel
         HBox statusPanel = createStatusPanel();
         
-        root.setCenter(canvas);
+        root.setCenter(canvasPane);
         root.setTop(controlPanel);
         root.setBottom(statusPanel);
         
-        Scene scene = new Scene(root, CANVAS_WIDTH + 50, CANVAS_HEIGHT + 150);
+        Scene scene = new Scene(root, CANVAS_WIDTH + 50, CANVAS_HEIGHT + 405);
         scene.getStylesheets().add("data:text/css," + getCSS());
         primaryStage.setScene(scene);
+        
+        // One frame and one stats refresh per pulse, however fast the algorithm runs
+        frameTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                frames.drain(AlgorithmVisualizer.this::renderFrame);
+                if (statsChanged) {
+                    statsChanged = false;
+                    refreshStats();
+                }
+            }
+        };
+        frameTimer.start();
     }
 
     private VBox createControlPanel() {
@@ -95,27 +207,92 @@ public class AlgorithmVisualizer extends Application {
         algorithmComboBox = new ComboBox<>();
         algorithmComboBox.getItems().addAll(
             "Bubble Sort", "Selection Sort", "Insertion Sort", 
-            "Merge Sort", "Quick Sort", "Heap Sort"
+            "Merge Sort", "Block Merge Sort", "Quick Sort", "Quick Sort (SIMD)", "Heap Sort",
+            "Heap Sort (Iterative)", "Heap Sort (Bottom-up)", "Heap Sort (4-ary)", "Heap Sort (8-ary)",
+            "Sample Sort"
         );
         algorithmComboBox.setValue("Bubble Sort");
-        algorithmBox.getChildren().addAll(algorithmLabel, algorithmComboBox);
+        Label threadsLabel = new Label("Threads:");
+        threadsSpinner = new Spinner<>(1, MAX_THREADS, Runtime.getRuntime().availableProcessors());
+        threadsSpinner.setPrefWidth(70);
+        Label viewLabel = new Label("View:");
+        viewComboBox = new ComboBox<>();
+        viewComboBox.getItems().addAll(PixelBufferView.View.values());
+        viewComboBox.setValue(view);
+        viewComboBox.setOnAction(e -> {
+            view = viewComboBox.getValue();
+            drawArray();
+        });
+        algorithmBox.getChildren().addAll(algorithmLabel, algorithmComboBox, viewLabel, viewComboBox, threadsLabel, threadsSpinner);
+        
+        // Input distribution and seed
+        HBox inputBox = new HBox(10);
+        inputBox.setAlignment(Pos.CENTER);
+        Label inputLabel = new Label("Input:");
+        distributionComboBox = new ComboBox<>();
+        distributionComboBox.getItems().addAll(InputGenerator.Distribution.values());
+        distributionComboBox.setValue(distribution);
+        distributionComboBox.setOnAction(e -> {
+            distribution = distributionComboBox.getValue();
+            regenerateArray();
+        });
+        Label seedLabel = new Label("Seed:");
+        seedField = new TextField(String.valueOf(seed));
+        seedField.setPrefColumnCount(20);
+        seedField.setOnAction(e -> {
+            try {
+                seed = Long.parseLong(seedField.getText().trim());
+                regenerateArray();
+            } catch (NumberFormatException ex) {
+                updateStatus("Seed must be a whole number");
+            }
+        });
+        newSeedButton = new Button("New Seed");
+        newSeedButton.setOnAction(e -> {
+            seed = new SplittableRandom().nextLong();
+            seedField.setText(String.valueOf(seed));
+            regenerateArray();
+        });
+        inputBox.getChildren().addAll(inputLabel, distributionComboBox, seedLabel, seedField, newSeedButton);
         
         // Array size control
         HBox sizeBox = new HBox(10);
         sizeBox.setAlignment(Pos.CENTER);
         Label sizeLabel = new Label("Array Size:");
-        arraySizeSlider = new Slider(10, MAX_ARRAY_SIZE, arraySize);
+        // Logarithmic scale: the slider holds log10 of the size
+        arraySizeSlider = new Slider(Math.log10(MIN_ARRAY_SIZE), Math.log10(MAX_ARRAY_SIZE), Math.log10(arraySize));
         arraySizeSlider.setShowTickMarks(true);
         arraySizeSlider.setShowTickLabels(true);
-        arraySizeSlider.setMajorTickUnit(20);
+        arraySizeSlider.setMajorTickUnit(1);
+        arraySizeSlider.setMinorTickCount(0);
+        arraySizeSlider.setPrefWidth(300);
+        arraySizeSlider.setLabelFormatter(new StringConverter<Double>() {
+            @Override
+            public String toString(Double exponent) {
+                return String.format("%,d", Math.round(Math.pow(10, exponent)));
+            }
+
+            @Override
+            public Double fromString(String text) {
+                return Math.log10(Double.parseDouble(text.replace(",", "")));
+            }
+        });
         Label sizeValueLabel = new Label(String.valueOf(arraySize));
         arraySizeSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
-            arraySize = newVal.intValue();
-            sizeValueLabel.setText(String.valueOf(arraySize));
-            if (!isRunning.get()) {
+            arraySize = (int) Math.round(Math.pow(10, newVal.doubleValue()));
+            sizeValueLabel.setText(String.format("%,d", arraySize));
+            // Large arrays are only regenerated once the thumb is released
+            if (!isRunning.get() && !arraySizeSlider.isValueChanging()) {
                 initializeArray();
+                resetStats();
                 drawArray();
+            }
+        });
+        arraySizeSlider.valueChangingProperty().addListener((obs, wasChanging, changing) -> {
+            if (!changing && !isRunning.get()) {
+                initializeArray();
                 resetStats();
+                drawArray();
             }
         });
         sizeBox.getChildren().addAll(sizeLabel, arraySizeSlider, sizeValueLabel);
@@ -133,7 +310,12 @@ public class AlgorithmVisualizer extends Application {
             delay = MAX_DELAY + MIN_DELAY - newVal.intValue(); // Invert for intuitive control
             speedValueLabel.setText(delay + "ms");
         });
-        speedBox.getChildren().addAll(speedLabel, speedSlider, speedValueLabel);
+        Label framesLabel = new Label("Frames:");
+        framePolicyComboBox = new ComboBox<>();
+        framePolicyComboBox.getItems().addAll(FrameChannel.Policy.values());
+        framePolicyComboBox.setValue(frames.policy());
+        framePolicyComboBox.setOnAction(e -> frames.setPolicy(framePolicyComboBox.getValue()));
+        speedBox.getChildren().addAll(speedLabel, speedSlider, speedValueLabel, framesLabel, framePolicyComboBox);
         
         // Control buttons
         HBox buttonBox = new HBox(10);
@@ -156,9 +338,102 @@ public class AlgorithmVisualizer extends Application {
         shuffleButton.getStyleClass().add("shuffle-button");
         shuffleButton.setOnAction(e -> shuffleArray());
         
-        buttonBox.getChildren().addAll(startButton, pauseButton, resetButton, shuffleButton);
+        externalSortButton = new Button("External Sort...");
+        externalSortButton.getStyleClass().add("external-button");
+        externalSortButton.setOnAction(e -> startExternalSort());
+        
+        exportButton = new Button("Export Video...");
+        exportButton.getStyleClass().add("export-button");
+        exportButton.setOnAction(e -> startVideoExport());
+        
+        traceButton = new Button("Export Trace...");
+        traceButton.getStyleClass().add("export-button");
+        traceButton.setOnAction(e -> startTraceExport());
+        
+        hudCheckBox = new CheckBox("HUD");
+        hudCheckBox.setOnAction(e -> hud.setVisible(hudCheckBox.isSelected()));
+        
+        buttonBox.getChildren().addAll(startButton, pauseButton, resetButton, shuffleButton, externalSortButton, exportButton, traceButton, hudCheckBox);
+        
+        // Searches over the sorted array
+        HBox searchBox = new HBox(10);
+        searchBox.setAlignment(Pos.CENTER);
+        Label searchLabel = new Label("Search:");
+        searchComboBox = new ComboBox<>();
+        searchComboBox.getItems().addAll(SearchKernels.Algorithm.values());
+        searchComboBox.setValue(SearchKernels.Algorithm.BINARY);
+        searchButton = new Button("Run Queries");
+        searchButton.getStyleClass().add("search-button");
+        searchButton.setOnAction(e -> startSearch());
+        searchBox.getChildren().addAll(searchLabel, searchComboBox, searchButton);
+        
+        // Pathfinding on a random weighted grid
+        HBox pathBox = new HBox(10);
+        pathBox.setAlignment(Pos.CENTER);
+        Label pathLabel = new Label("Path:");
+        pathComboBox = new ComboBox<>();
+        pathComboBox.getItems().addAll(Pathfinder.Algorithm.values());
+        pathComboBox.setValue(Pathfinder.Algorithm.A_STAR);
+        Label queueLabel = new Label("Queue:");
+        queueComboBox = new ComboBox<>();
+        queueComboBox.getItems().addAll(Pathfinder.Queue.values());
+        queueComboBox.setValue(Pathfinder.Queue.BINARY_HEAP);
+        Label gridLabel = new Label("Grid side:");
+        gridComboBox = new ComboBox<>();
+        gridComboBox.getItems().addAll(GRID_SIDES);
+        gridComboBox.setValue(GRID_SIDES[1]);
+        pathButton = new Button("Find Path");
+        pathButton.getStyleClass().add("path-button");
+        pathButton.setOnAction(e -> startPathfinding());
+        pathBox.getChildren().addAll(pathLabel, pathComboBox, queueLabel, queueComboBox, gridLabel, gridComboBox, pathButton);
         
-        controlPanel.getChildren().addAll(algorithmBox, sizeBox, speedBox, buttonBox);
+        // Cache simulation of the selected sort on the current array
+        HBox cacheBox = new HBox(10);
+        cacheBox.setAlignment(Pos.CENTER);
+        Label cacheLabel = new Label("Cache:");
+        tlbCheckBox = new CheckBox("TLB");
+        tlbCheckBox.setSelected(true);
+        cacheButton = new Button("Simulate Cache");
+        cacheButton.getStyleClass().add("cache-button");
+        cacheButton.setOnAction(e -> startCacheSimulation());
+        cacheBox.getChildren().addAll(cacheLabel, tlbCheckBox, cacheButton);
+        
+        // Replay of a binary trace file, with seeking
+        HBox replayBox = new HBox(10);
+        replayBox.setAlignment(Pos.CENTER);
+        openTraceButton = new Button("Open Trace...");
+        openTraceButton.getStyleClass().add("replay-button");
+        openTraceButton.setOnAction(e -> startReplay());
+        replaySlider = new Slider(0, 1, 0);
+        replaySlider.setPrefWidth(300);
+        replaySlider.setDisable(true);
+        replaySlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (!updatingReplaySlider) replaySeek = newVal.longValue();
+        });
+        Label strideLabel = new Label("Ops per step:");
+        strideComboBox = new ComboBox<>();
+        strideComboBox.getItems().addAll(REPLAY_STRIDES);
+        strideComboBox.setValue(REPLAY_STRIDES[0]);
+        strideComboBox.setOnAction(e -> replayStride = strideComboBox.getValue());
+        replayBox.getChildren().addAll(openTraceButton, replaySlider, strideLabel, strideComboBox);
+        
+        // The JDK's own sorts, recorded and then replayed like a trace file
+        HBox jdkBox = new HBox(10);
+        jdkBox.setAlignment(Pos.CENTER);
+        Label jdkLabel = new Label("JDK sort:");
+        jdkComboBox = new ComboBox<>();
+        jdkComboBox.getItems().addAll(JdkSorts.Sort.values());
+        jdkComboBox.setValue(JdkSorts.Sort.TIM_SORT);
+        jdkButton = new Button("Record JDK Sort");
+        jdkButton.getStyleClass().add("replay-button");
+        jdkButton.setOnAction(e -> startJdkRecording());
+        // Timing matrix of the uninstrumented kernels, in its own window
+        experimentsButton = new Button("Experiments...");
+        experimentsButton.getStyleClass().add("export-button");
+        experimentsButton.setOnAction(e -> showExperiments());
+        jdkBox.getChildren().addAll(jdkLabel, jdkComboBox, jdkButton, experimentsButton);
+        
+        controlPanel.getChildren().addAll(algorithmBox, inputBox, sizeBox, speedBox, buttonBox, searchBox, pathBox, cacheBox, replayBox, jdkBox);
         return controlPanel;
     }
 
@@ -177,29 +452,53 @@ public class AlgorithmVisualizer extends Application {
         swapsLabel = new Label("Swaps: 0");
         swapsLabel.getStyleClass().add("stat-label");
         
+        timingLabel = new Label("");
+        timingLabel.getStyleClass().add("stat-label");
+        
         progressBar = new ProgressBar(0);
         progressBar.setPrefWidth(200);
         
-        statusPanel.getChildren().addAll(statusLabel, comparisonsLabel, swapsLabel, progressBar);
+        statusPanel.getChildren().addAll(statusLabel, comparisonsLabel, swapsLabel, timingLabel, progressBar);
         return statusPanel;
     }
 
     private void initializeArray() {
-        array = new int[arraySize];
-        for (int i = 0; i < arraySize; i++) {
-            array[i] = i + 1;
+        array = InputGenerator.generate(distribution, arraySize, seed);
+        if (shuffled) {
+            shuffleInPlace();
         }
-        shuffleArray();
     }
 
-    private void shuffleArray() {
+    // Sorting first makes the result depend only on the values and shuffleSeed, not on
+    // the order the array was left in; it is a single linear pass after a finished run
+    private void shuffleInPlace() {
+        Arrays.sort(array);
+        Shuffler.shuffle(array, shuffleSeed);
+    }
+
+    private void regenerateArray() {
         if (isRunning.get()) return;
         
-        List<Integer> list = new ArrayList<>(Arrays.stream(array).boxed().toList());
-        Collections.shuffle(list);
-        array = list.stream().mapToInt(Integer::intValue).toArray();
+        shuffled = false;
+        initializeArray();
+        resetStats();
         drawArray();
+        updateStatus("Ready");
+    }
+
+    private void shuffleArray() {
+        if (isRunning.get()) return;
+        
+        // The live array is shuffled without allocating; the input seed is kept, so
+        // Reset rebuilds the same array from it and the shuffle seed
+        shuffled = true;
+        shuffleSeed = new SplittableRandom().nextLong();
+        long start = System.nanoTime();
+        shuffleInPlace();
+        long nanos = System.nanoTime() - start;
         resetStats();
+        drawArray();
+        updateStatus("Shuffled with seed " + shuffleSeed + " in " + formatNanos(nanos));
     }
 
     private void resetArray() {
@@ -209,8 +508,8 @@ public class AlgorithmVisualizer extends Application {
         }
         
         initializeArray();
-        drawArray();
         resetStats();
+        drawArray();
         updateButtonStates();
         updateStatus("Ready");
     }
@@ -220,9 +519,19 @@ public class AlgorithmVisualizer extends Application {
         swaps = 0;
         currentStep = 0;
         totalSteps = 0;
+        bufferStart = 0;
+        bufferLength = 0;
+        splitterValues = null;
+        bucketStarts = null;
+        pathfinder = null;
+        externalPreview = null;
+        cacheHeat = null;
+        replayPosition = -1;
+        replaySeek = -1;
         Platform.runLater(() -> {
             comparisonsLabel.setText("Comparisons: 0");
             swapsLabel.setText("Swaps: 0");
+            timingLabel.setText("");
             progressBar.setProgress(0);
         });
     }
@@ -236,33 +545,687 @@ public class AlgorithmVisualizer extends Application {
         updateButtonStates();
         
         String algorithm = algorithmComboBox.getValue();
+        int threads = threadsSpinner.getValue();
+        SortVerifier.Fingerprint input = SortVerifier.fingerprint(array);
+        int size = array.length;
+        String inputDistribution = distribution.toString();
+        long inputSeed = seed;
         updateStatus("Running " + algorithm + "...");
         
         CompletableFuture.runAsync(() -> {
+            VisualizerEvents.Run run = new VisualizerEvents.Run();
+            run.begin();
+            boolean verified = false;
             try {
                 switch (algorithm) {
                     case "Bubble Sort" -> bubbleSort();
                     case "Selection Sort" -> selectionSort();
                     case "Insertion Sort" -> insertionSort();
                     case "Merge Sort" -> mergeSort(0, array.length - 1);
+                    case "Block Merge Sort" -> blockMergeSort();
                     case "Quick Sort" -> quickSort(0, array.length - 1);
+                    case "Quick Sort (SIMD)" -> vectorQuickSort();
                     case "Heap Sort" -> heapSort();
+                    case "Heap Sort (Iterative)" -> dAryHeapSort(2);
+                    case "Heap Sort (Bottom-up)" -> bottomUpHeapSort();
+                    case "Heap Sort (4-ary)" -> dAryHeapSort(4);
+                    case "Heap Sort (8-ary)" -> dAryHeapSort(8);
+                    case "Sample Sort" -> sampleSort(threads);
                 }
                 
                 if (isRunning.get()) {
+                    SortVerifier.Result result = SortVerifier.verify(array, input);
+                    verified = result.passed();
                     Platform.runLater(() -> {
-                        updateStatus("Sorting completed!");
-                        highlightSortedArray();
+                        if (result.passed()) {
+                            updateStatus("Sorting completed! Verified " + result.describe()
+                                    + " in " + formatNanos(result.nanos()));
+                            highlightSortedArray();
+                        } else {
+                            updateStatus("Verification failed: " + result.describe());
+                            int bad = (int) result.firstUnsorted();
+                            if (bad >= 0) {
+                                drawArray(bad - 1, bad, Color.RED);
+                            } else {
+                                // In order but not the input's values, so there is no pair to point at
+                                drawArray();
+                            }
+                        }
                     });
                 }
             } catch (InterruptedException e) {
                 Platform.runLater(() -> updateStatus("Sorting interrupted"));
             } finally {
+                run.commit(algorithm, size, inputDistribution, inputSeed, threads, verified);
                 isRunning.set(false);
                 isPaused.set(false);
                 Platform.runLater(this::updateButtonStates);
             }
-        });
+        });
+    }
+
+    // Replays random lower-bound queries probe by probe, sorting the array first if
+    // needed, then times the same search on a batch of uninstrumented queries. Probes
+    // count as comparisons and each query as a step.
+    private void startSearch() {
+        if (isRunning.get()) return;
+        
+        isRunning.set(true);
+        isPaused.set(false);
+        resetStats();
+        updateButtonStates();
+        
+        SearchKernels.Algorithm algorithm = searchComboBox.getValue();
+        long querySeed = seed;
+        updateStatus(algorithm + " search...");
+        
+        CompletableFuture.runAsync(() -> {
+            try {
+                if (SortVerifier.firstUnsorted(array) >= 0) {
+                    Arrays.parallelSort(array);
+                    drawArray();
+                }
+                int n = array.length;
+                boolean eytzinger = algorithm == SearchKernels.Algorithm.EYTZINGER;
+                int[] haystack = eytzinger ? SearchKernels.eytzinger(array) : array;
+                int[] ranks = eytzinger ? SearchKernels.ranks(n) : null;
+                SplittableRandom random = new SplittableRandom(querySeed);
+                long lowKey = array[0], highKey = array[n - 1];
+                
+                totalSteps = SEARCH_QUERIES;
+                currentStep = 0;
+                for (int q = 0; q < SEARCH_QUERIES && isRunning.get(); q++) {
+                    int key = (int) random.nextLong(lowKey, highKey + 1);
+                    IntStream.Builder probes = IntStream.builder();
+                    int result = SearchKernels.search(algorithm, haystack, key, probes);
+                    for (int probe : probes.build().toArray()) {
+                        comparisons++;
+                        drawArray(eytzinger ? ranks[probe] : probe, -1, Color.RED);
+                        updateStats();
+                        waitForDelay();
+                    }
+                    int found = !eytzinger ? result : result == 0 ? n : ranks[result];
+                    currentStep++;
+                    drawArray(found, -1, Color.LIGHTGREEN);
+                    updateStats();
+                    waitForDelay();
+                }
+                
+                // A long bound, since every value can be the same, as in an opened trace
+                int[] keys = random.longs(SEARCH_THROUGHPUT_QUERIES, lowKey, highKey + 1).mapToInt(key -> (int) key).toArray();
+                long start = System.nanoTime();
+                for (int key : keys) {
+                    SearchKernels.search(algorithm, haystack, key, SearchKernels.NO_PROBES);
+                }
+                long nanos = System.nanoTime() - start;
+                updateStatus(String.format("%s: %.1f probes per query, %.2f M queries/s uninstrumented",
+                        algorithm, (double) comparisons / SEARCH_QUERIES, keys.length * 1e3 / nanos));
+            } catch (InterruptedException e) {
+                updateStatus("Search interrupted");
+            } catch (RuntimeException e) {
+                updateStatus("Search failed: " + e.getMessage());
+            } finally {
+                isRunning.set(false);
+                isPaused.set(false);
+                Platform.runLater(this::updateButtonStates);
+            }
+        });
+    }
+
+    // Sorts the array with the recorded version of the selected algorithm, feeding every
+    // element access through CacheSimulator, then shows the misses per level and where
+    // along the array the stall cycles went
+    private void startCacheSimulation() {
+        if (isRunning.get()) return;
+        
+        String algorithm = algorithmComboBox.getValue();
+        if (!RecordedSorts.supports(algorithm)) {
+            updateStatus(algorithm + " cannot be simulated yet");
+            return;
+        }
+        if (array.length > RecordedSorts.maxSize(algorithm)) {
+            updateStatus(algorithm + " can be simulated on at most " + RecordedSorts.maxSize(algorithm) + " elements");
+            return;
+        }
+        
+        isRunning.set(true);
+        isPaused.set(false);
+        resetStats();
+        updateButtonStates();
+        boolean withTlb = tlbCheckBox.isSelected();
+        updateStatus("Simulating caches for " + algorithm + "...");
+        
+        CompletableFuture.runAsync(() -> {
+            try {
+                CacheSimulator cache = CacheSimulator.typical(withTlb);
+                OperationLog log = new OperationLog(cache);
+                long start = System.nanoTime();
+                RecordedSorts.sort(algorithm, array, log);
+                long nanos = System.nanoTime() - start;
+                
+                comparisons = (int) Math.min(Integer.MAX_VALUE, log.comparisons());
+                swaps = (int) Math.min(Integer.MAX_VALUE, log.size());
+                cacheHeat = cache.stallHeat(Math.min(CANVAS_WIDTH, array.length), array.length);
+                updateStats();
+                drawArray();
+                Platform.runLater(() -> timingLabel.setText(cache.describe()));
+                updateStatus(String.format("%s: ~%.1f cycles per element, %.2f%% of accesses from memory (simulated in %s)",
+                        algorithm, (double) cache.cycles() / array.length,
+                        100.0 * cache.memoryAccesses() / Math.max(1, cache.accesses()), formatNanos(nanos)));
+            } catch (RuntimeException e) {
+                updateStatus("Cache simulation failed: " + e.getMessage());
+            } finally {
+                isRunning.set(false);
+                isPaused.set(false);
+                Platform.runLater(this::updateButtonStates);
+            }
+        });
+    }
+
+    // Finds a path across a fresh random grid from the top-left to the bottom-right
+    // cell, drawing the expanded cells and the frontier about PATH_PROGRESS_FRAMES times
+    private void startPathfinding() {
+        if (isRunning.get()) return;
+        
+        isRunning.set(true);
+        isPaused.set(false);
+        resetStats();
+        updateButtonStates();
+        
+        Pathfinder.Algorithm algorithm = pathComboBox.getValue();
+        Pathfinder.Queue queue = queueComboBox.getValue();
+        int side = gridComboBox.getValue();
+        long gridSeed = seed;
+        updateStatus(algorithm + " on a " + side + " x " + side + " grid...");
+        
+        CompletableFuture.runAsync(() -> {
+            try {
+                Grid grid = Grid.random(side, side, GRID_WALL_DENSITY, GRID_MAX_WEIGHT, gridSeed);
+                Pathfinder finder = new Pathfinder(grid, algorithm, queue,
+                        grid.cells() / PATH_PROGRESS_FRAMES, this::showPathProgress);
+                totalSteps = grid.cells();
+                pathfinder = finder;
+                if (finder.run(0, grid.cells() - 1)) {
+                    updateStatus(String.format("%s: path of %,d cells costing %,d in %s", algorithm,
+                            finder.pathLength(), finder.pathCost(), formatNanos(finder.elapsedNanos())));
+                } else {
+                    updateStatus(algorithm + ": the walls cut the goal off");
+                }
+            } catch (InterruptedException e) {
+                updateStatus("Pathfinding interrupted");
+            } finally {
+                isRunning.set(false);
+                isPaused.set(false);
+                Platform.runLater(this::updateButtonStates);
+            }
+        });
+    }
+
+    private void showPathProgress(Pathfinder finder) throws InterruptedException {
+        currentStep = (int) finder.expanded();
+        String counts = String.format("Expanded: %,d | Relaxed: %,d", finder.expanded(), finder.relaxations());
+        Platform.runLater(() -> timingLabel.setText(counts));
+        drawArray();
+        updateStats();
+        waitForDelay();
+    }
+
+    // Sorts a file of big-endian ints that may be far larger than the heap into
+    // <name>.sorted next to it, drawing a sampled preview of the file as it goes
+    private void startExternalSort() {
+        if (isRunning.get()) return;
+        
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Choose a file of 32-bit big-endian integers");
+        File input = chooser.showOpenDialog(stage);
+        if (input == null) return;
+        File output = new File(input.getParentFile(), input.getName() + ".sorted");
+        
+        isRunning.set(true);
+        isPaused.set(false);
+        resetStats();
+        updateButtonStates();
+        updateStatus("External sort of " + input.getName() + "...");
+        
+        CompletableFuture.runAsync(() -> {
+            try {
+                ExternalSort sorter = ExternalSort.forHeap(EXTERNAL_PREVIEW_SIZE, this::showExternalProgress);
+                externalPreview = sorter.preview();
+                sorter.sort(input.toPath(), output.toPath());
+                updateStatus("Sorted into " + output.getName());
+            } catch (IOException e) {
+                updateStatus("External sort failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                updateStatus("Sorting interrupted");
+            } finally {
+                isRunning.set(false);
+                isPaused.set(false);
+                Platform.runLater(this::updateButtonStates);
+            }
+        });
+    }
+
+    // Records the selected algorithm on a fresh input of any size at full speed and
+    // renders the run to a fixed-rate video file, independent of the speed slider
+    private void startVideoExport() {
+        if (isRunning.get()) return;
+        
+        String algorithm = algorithmComboBox.getValue();
+        int size = askRecordedSize(algorithm, "Export Video", true);
+        if (size < 0) return;
+        
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export " + algorithm);
+        for (VideoExporter.Format format : VideoExporter.Format.values()) {
+            chooser.getExtensionFilters().add(
+                    new FileChooser.ExtensionFilter(format.toString(), "*." + format.extension()));
+        }
+        chooser.setInitialFileName(algorithm.replace(' ', '-').toLowerCase());
+        File output = showSaveDialog(chooser);
+        if (output == null) return;
+        VideoExporter.Format format = VideoExporter.Format.forFile(output.toPath());
+        
+        isRunning.set(true);
+        isPaused.set(false);
+        resetStats();
+        updateButtonStates();
+        updateStatus("Recording " + algorithm + " on " + size + " elements...");
+        InputGenerator.Distribution inputDistribution = distribution;
+        long inputSeed = seed;
+        
+        CompletableFuture.runAsync(() -> {
+            try {
+                long start = System.nanoTime();
+                int[] input = InputGenerator.generate(inputDistribution, size, inputSeed);
+                OperationLog log = new OperationLog();
+                RecordedSorts.sort(algorithm, input.clone(), log);
+                updateStatus(String.format("Rendering %,d operations to %s...", log.size(), format));
+                
+                int frameCount = EXPORT_FPS * EXPORT_SECONDS;
+                new VideoExporter(CANVAS_WIDTH, CANVAS_HEIGHT, EXPORT_FPS, Runtime.getRuntime().availableProcessors())
+                        .export(input, log, frameCount, format, output.toPath(), (written, total) -> {
+                            currentStep = written;
+                            totalSteps = total;
+                            updateStats();
+                            awaitResume();
+                        });
+                updateStatus("Exported " + frameCount + " frames to " + output.getName()
+                        + " in " + formatNanos(System.nanoTime() - start));
+            } catch (IOException e) {
+                updateStatus("Export failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                updateStatus("Export stopped");
+            } catch (OutOfMemoryError e) {
+                updateStatus("Export ran out of memory recording " + size + " elements; try fewer");
+            } catch (RuntimeException e) {
+                updateStatus("Export failed: " + e);
+            } finally {
+                isRunning.set(false);
+                isPaused.set(false);
+                Platform.runLater(this::updateButtonStates);
+            }
+        });
+    }
+
+    // Streams every operation and phase of the selected algorithm on a fresh input to a
+    // CSV or Chrome trace file through TraceExporter, which writes on its own thread
+    private void startTraceExport() {
+        if (isRunning.get()) return;
+        
+        String algorithm = algorithmComboBox.getValue();
+        int size = askRecordedSize(algorithm, "Export Trace", false);
+        if (size < 0) return;
+        
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export " + algorithm + " trace");
+        for (TraceExporter.Format format : TraceExporter.Format.values()) {
+            chooser.getExtensionFilters().add(
+                    new FileChooser.ExtensionFilter(format.toString(), "*." + format.extension()));
+        }
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Binary trace", "*." + TraceFile.EXTENSION));
+        chooser.setInitialFileName(algorithm.replace(' ', '-').toLowerCase());
+        File output = showSaveDialog(chooser);
+        if (output == null) return;
+        TraceExporter.Format format = TraceExporter.Format.forFile(output.toPath());
+        boolean binary = output.getName().toLowerCase().endsWith("." + TraceFile.EXTENSION);
+        
+        isRunning.set(true);
+        isPaused.set(false);
+        resetStats();
+        updateButtonStates();
+        updateStatus("Tracing " + algorithm + " on " + size + " elements to " + output.getName() + "...");
+        InputGenerator.Distribution inputDistribution = distribution;
+        long inputSeed = seed;
+        
+        CompletableFuture.runAsync(() -> {
+            try {
+                long start = System.nanoTime();
+                int[] input = InputGenerator.generate(inputDistribution, size, inputSeed);
+                if (binary) {
+                    TraceFile.Writer writer = new TraceFile.Writer(output.toPath(), input);
+                    try (writer) {
+                        RecordedSorts.sort(algorithm, input, new OperationLog(new StoppableTrace(writer, isRunning)));
+                    }
+                    updateStatus(String.format("Exported %,d operations to %s in %s", writer.operations(),
+                            output.getName(), formatNanos(System.nanoTime() - start)));
+                    return;
+                }
+                TraceExporter exporter = new TraceExporter(output.toPath(), format, algorithm + ", n = " + size);
+                try (exporter) {
+                    RecordedSorts.sort(algorithm, input, new OperationLog(new StoppableTrace(exporter, isRunning)));
+                }
+                updateStatus(String.format("Exported %,d events (%.1f MB) to %s in %s", exporter.events(),
+                        exporter.bytesWritten() / 1e6, output.getName(), formatNanos(System.nanoTime() - start)));
+            } catch (IOException | UncheckedIOException e) {
+                updateStatus("Trace export failed: " + e.getMessage());
+            } catch (CancellationException e) {
+                // A cut-off trace is not valid JSON or a readable binary trace
+                try {
+                    Files.deleteIfExists(output.toPath());
+                    updateStatus("Trace export stopped");
+                } catch (IOException deleteFailed) {
+                    updateStatus("Trace export stopped, " + output.getName() + " is incomplete");
+                }
+            } finally {
+                isRunning.set(false);
+                isPaused.set(false);
+                Platform.runLater(this::updateButtonStates);
+            }
+        });
+    }
+
+    // Passes every operation on until Reset clears running, then unwinds the sort
+    private static final class StoppableTrace implements OperationLog.Trace {
+        private final OperationLog.Trace trace;
+        private final AtomicBoolean running;
+
+        StoppableTrace(OperationLog.Trace trace, AtomicBoolean running) {
+            this.trace = trace;
+            this.running = running;
+        }
+
+        private void checkRunning() {
+            if (!running.get()) {
+                throw new CancellationException("Trace export stopped");
+            }
+        }
+
+        @Override
+        public void compare(int i, int j, int left, int right) {
+            checkRunning();
+            trace.compare(i, j, left, right);
+        }
+
+        @Override
+        public void swap(int i, int j, int left, int right) {
+            checkRunning();
+            trace.swap(i, j, left, right);
+        }
+
+        @Override
+        public void write(int i, int value) {
+            checkRunning();
+            trace.write(i, value);
+        }
+
+        @Override
+        public void phase(String name, int from, int to, long startNanos, long endNanos) {
+            trace.phase(name, from, to, startNanos, endNanos);
+        }
+    }
+
+    // Replays a binary trace file over the canvas, a number of operations per step at
+    // the speed slider's delay, until Reset. The slider seeks; the file stays mapped
+    // rather than read in, so opening it takes the same time at any size.
+    private void startReplay() {
+        if (isRunning.get()) return;
+        
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Open Trace");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Binary trace", "*." + TraceFile.EXTENSION));
+        File input = chooser.showOpenDialog(stage);
+        if (input == null) return;
+        openReplay(input.toPath());
+    }
+
+    private void openReplay(Path input) {
+        TraceFile trace;
+        TraceReplayer replayer;
+        try {
+            long start = System.nanoTime();
+            trace = TraceFile.open(input);
+            try {
+                replayer = new TraceReplayer(trace, REPLAY_CHECKPOINT_BYTES);
+            } catch (IOException | RuntimeException e) {
+                trace.close();
+                throw e;
+            }
+            updateStatus(String.format("Opened %,d operations on %,d elements in %s", trace.operations(),
+                    trace.length(), formatNanos(System.nanoTime() - start)));
+        } catch (IOException e) {
+            updateStatus("Cannot open trace: " + e.getMessage());
+            if (input.equals(jdkRecording)) deleteJdkRecording();
+            return;
+        }
+        
+        isRunning.set(true);
+        isPaused.set(false);
+        resetStats();
+        array = replayer.array();
+        replayPosition = 0;
+        replaySlider.setMax(Math.max(1, trace.operations()));
+        updatingReplaySlider = true;
+        replaySlider.setValue(0);
+        updatingReplaySlider = false;
+        updateButtonStates();
+        drawArray();
+        
+        CompletableFuture.runAsync(() -> {
+            try (trace) {
+                totalSteps = REPLAY_PROGRESS_STEPS;
+                long operations = Math.max(1, trace.operations());
+                while (true) {
+                    long seek = replaySeek;
+                    if (seek >= 0) {
+                        replaySeek = -1;
+                        replayer.seek(seek);
+                    } else if (replayer.finished()) {
+                        Thread.sleep(50);
+                        awaitResume();
+                        continue;
+                    } else {
+                        replayer.step(replayStride);
+                    }
+                    comparisons = (int) Math.min(Integer.MAX_VALUE, replayer.comparisons());
+                    swaps = (int) Math.min(Integer.MAX_VALUE, replayer.swaps() + replayer.writes());
+                    currentStep = (int) (replayer.position() * REPLAY_PROGRESS_STEPS / operations);
+                    replayPosition = replayer.position();
+                    Color color = switch (replayer.lastKind()) {
+                        case TraceFile.COMPARE -> Color.RED;
+                        case TraceFile.SWAP -> Color.ORANGE;
+                        default -> Color.PLUM;
+                    };
+                    drawArray(replayer.lastFirst(), replayer.lastSecond(), color);
+                    updateStats();
+                    if (replayer.finished()) {
+                        updateStatus("Replay finished: drag the slider to seek, or Reset to close the trace");
+                    }
+                    waitForDelay();
+                }
+            } catch (InterruptedException e) {
+                updateStatus("Replay stopped");
+            } catch (IOException | RuntimeException e) {
+                updateStatus("Replay failed: " + e.getMessage());
+            } finally {
+                // The trace is closed by now, so a JDK recording can go
+                if (input.equals(jdkRecording)) deleteJdkRecording();
+                replayPosition = -1;
+                isRunning.set(false);
+                isPaused.set(false);
+                Platform.runLater(this::updateButtonStates);
+            }
+        });
+    }
+
+    private void deleteJdkRecording() {
+        Path recording = jdkRecording;
+        jdkRecording = null;
+        if (recording == null) return;
+        try {
+            Files.deleteIfExists(recording);
+        } catch (IOException e) {
+            // Still marked to be deleted on exit
+        }
+    }
+
+    // Records the chosen JDK sort on the current array to a temporary trace file through
+    // JdkSorts, shows its counts and times beside the hand-written sorts, and replays it
+    private void startJdkRecording() {
+        if (isRunning.get()) return;
+        
+        JdkSorts.Sort sort = jdkComboBox.getValue();
+        if (array.length > JdkSorts.MAX_SIZE) {
+            updateStatus("JDK sorts can be recorded on at most " + JdkSorts.MAX_SIZE + " elements");
+            return;
+        }
+        
+        isRunning.set(true);
+        isPaused.set(false);
+        resetStats();
+        updateButtonStates();
+        updateStatus("Recording " + sort + "...");
+        int[] input = array.clone();
+        deleteJdkRecording();
+        
+        CompletableFuture.runAsync(() -> {
+            Path recorded = null;
+            String table = null;
+            try {
+                Path out = Files.createTempFile("jdk-sort", "." + TraceFile.EXTENSION);
+                out.toFile().deleteOnExit();
+                jdkRecording = out;
+                try (TraceFile.Writer writer = new TraceFile.Writer(out, input)) {
+                    JdkSorts.record(sort, input, writer);
+                }
+                updateStatus("Timing " + sort + " against the hand-written sorts...");
+                table = JdkSorts.format(JdkSorts.sideBySide(input));
+                recorded = out;
+            } catch (IOException | UncheckedIOException e) {
+                updateStatus("Recording failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                updateStatus("Recording interrupted");
+            } finally {
+                if (recorded == null) deleteJdkRecording();
+                isRunning.set(false);
+                isPaused.set(false);
+                Path trace = recorded;
+                String stats = table;
+                Platform.runLater(() -> {
+                    updateButtonStates();
+                    if (trace != null) {
+                        showTable(sort + " and the hand-written sorts, n = " + input.length, stats);
+                        openReplay(trace);
+                    }
+                });
+            }
+        });
+    }
+
+    // The window runs on its own pool, independent of the visualizer's runs
+    private void showExperiments() {
+        if (experiments == null) {
+            experiments = new ExperimentWindow(stage);
+        }
+        experiments.show(seed);
+    }
+
+    private void showTable(String title, String table) {
+        TextArea text = new TextArea(table);
+        text.setEditable(false);
+        text.setFont(Font.font("Monospaced", 12));
+        text.setPrefColumnCount(75);
+        text.setPrefRowCount(table.split("\n").length + 1);
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Sort Comparison");
+        alert.setHeaderText(title);
+        alert.getDialogPane().setContent(text);
+        alert.initModality(Modality.NONE);
+        alert.show();
+    }
+
+    // Asks how many elements to record the algorithm on; -1 when it cannot be recorded,
+    // the dialog was cancelled or the answer was out of range
+    // The file to save to, or null if cancelled. The format is the selected filter's,
+    // whatever the name typed; its extension is added when the name lacks it
+    private File showSaveDialog(FileChooser chooser) {
+        chooser.setSelectedExtensionFilter(chooser.getExtensionFilters().get(0));
+        File chosen = chooser.showSaveDialog(stage);
+        if (chosen == null) return null;
+        FileChooser.ExtensionFilter filter = Objects.requireNonNullElse(
+                chooser.getSelectedExtensionFilter(), chooser.getExtensionFilters().get(0));
+        String extension = filter.getExtensions().get(0).substring(1);
+        return chosen.getName().toLowerCase().endsWith(extension)
+                ? chosen : new File(chosen.getParentFile(), chosen.getName() + extension);
+    }
+
+    // keepsLog is for exports that hold the whole OperationLog in memory, which caps
+    // the size by the free heap as well
+    private int askRecordedSize(String algorithm, String title, boolean keepsLog) {
+        if (!RecordedSorts.supports(algorithm)) {
+            updateStatus(algorithm + " cannot be exported yet");
+            return -1;
+        }
+        int maxSize = keepsLog ? maxLoggedSize(algorithm) : RecordedSorts.maxSize(algorithm);
+        TextInputDialog sizeDialog = new TextInputDialog(String.valueOf(Math.min(arraySize, maxSize)));
+        sizeDialog.setTitle(title);
+        sizeDialog.setHeaderText(String.format("Elements to sort (at most %,d)", maxSize));
+        Optional<String> answer = sizeDialog.showAndWait();
+        if (answer.isEmpty()) return -1;
+        int size;
+        try {
+            size = Integer.parseInt(answer.get().trim());
+        } catch (NumberFormatException e) {
+            updateStatus("Size must be a whole number");
+            return -1;
+        }
+        if (size < 1 || size > maxSize) {
+            updateStatus(String.format("Size must be between 1 and %,d", maxSize));
+            return -1;
+        }
+        return size;
+    }
+
+    // The largest input whose expected log, at 8 bytes an operation, and two copies of
+    // the input fit in half of the heap that is free now; the rest is left for rendering
+    private static int maxLoggedSize(String algorithm) {
+        Runtime runtime = Runtime.getRuntime();
+        long budget = (runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory())) / 2;
+        int low = 1, high = RecordedSorts.maxSize(algorithm);
+        while (low < high) {
+            int mid = (int) ((low + (long) high + 1) / 2);
+            long bytes = RecordedSorts.expectedOperations(algorithm, mid) * Long.BYTES + 2L * mid * Integer.BYTES;
+            if (bytes <= budget) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void showExternalProgress(ExternalSort sorter) throws InterruptedException {
+        bucketStarts = sorter.runBoundaries();
+        String step = switch (sorter.stage()) {
+            case RUN_FORMATION -> "Forming runs: " + sorter.runCount() + " written";
+            case MERGE -> "Merge pass " + sorter.pass() + ": " + sorter.runCount() + " runs";
+            case DONE -> "Done in " + formatNanos(sorter.elapsedNanos());
+        };
+        String io = String.format("Blocks read: %,d | written: %,d | %.1f MB/s",
+                sorter.blocksRead(), sorter.blocksWritten(), sorter.throughputBytesPerSecond() / 1e6);
+        updateStatus(step);
+        Platform.runLater(() -> timingLabel.setText(io));
+        drawArray();
+        awaitResume();
     }
 
     private void togglePause() {
@@ -279,26 +1242,58 @@ public class AlgorithmVisualizer extends Application {
         pauseButton.setDisable(!running);
         resetButton.setDisable(false);
         shuffleButton.setDisable(running);
+        externalSortButton.setDisable(running);
+        exportButton.setDisable(running);
+        traceButton.setDisable(running);
+        searchButton.setDisable(running);
+        searchComboBox.setDisable(running);
+        pathButton.setDisable(running);
+        pathComboBox.setDisable(running);
+        queueComboBox.setDisable(running);
+        gridComboBox.setDisable(running);
+        tlbCheckBox.setDisable(running);
+        cacheButton.setDisable(running);
+        openTraceButton.setDisable(running);
+        jdkComboBox.setDisable(running);
+        jdkButton.setDisable(running);
+        replaySlider.setDisable(!running || replayPosition < 0);
         algorithmComboBox.setDisable(running);
+        threadsSpinner.setDisable(running);
         arraySizeSlider.setDisable(running);
+        distributionComboBox.setDisable(running);
+        seedField.setDisable(running);
+        newSeedButton.setDisable(running);
     }
 
     private void updateStatus(String status) {
         Platform.runLater(() -> statusLabel.setText(status));
     }
 
+    // Picked up by the frame timer on the next pulse
     private void updateStats() {
-        Platform.runLater(() -> {
-            comparisonsLabel.setText("Comparisons: " + comparisons);
-            swapsLabel.setText("Swaps: " + swaps);
-            if (totalSteps > 0) {
-                progressBar.setProgress((double) currentStep / totalSteps);
-            }
-        });
+        statsChanged = true;
+    }
+
+    private void refreshStats() {
+        comparisonsLabel.setText("Comparisons: " + comparisons);
+        swapsLabel.setText("Swaps: " + swaps);
+        if (totalSteps > 0) {
+            progressBar.setProgress((double) currentStep / totalSteps);
+        }
+        long position = replayPosition;
+        if (position >= 0) {
+            updatingReplaySlider = true;
+            replaySlider.setValue(position);
+            updatingReplaySlider = false;
+        }
     }
 
     private void waitForDelay() throws InterruptedException {
         Thread.sleep(delay);
+        awaitResume();
+    }
+
+    private void awaitResume() throws InterruptedException {
         while (isPaused.get() && isRunning.get()) {
             Thread.sleep(50);
         }
@@ -311,24 +1306,82 @@ public class AlgorithmVisualizer extends Application {
         drawArray(-1, -1, Color.LIGHTBLUE);
     }
 
+    // Off the FX thread frames go through the bounded channel; on it they are drawn
+    // straight away and anything still queued is discarded as stale
     private void drawArray(int highlightIndex1, int highlightIndex2, Color highlightColor) {
-        Platform.runLater(() -> {
-            gc.clearRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
-            
-            if (array == null || array.length == 0) return;
-            
-            double barWidth = (double) CANVAS_WIDTH / array.length;
-            double maxHeight = CANVAS_HEIGHT - 50;
-            int maxValue = Arrays.stream(array).max().orElse(1);
+        int bufferFrom = bufferStart;
+        int bufferTo = bufferStart + bufferLength;
+        int[] splitters = splitterValues;
+        int[] buckets = bucketStarts;
+        if (Platform.isFxApplicationThread()) {
+            frames.clear();
+            renderArray(highlightIndex1, highlightIndex2, highlightColor, bufferFrom, bufferTo, splitters, buckets);
+        } else {
+            frames.publish(highlightIndex1, highlightIndex2, highlightColor, bufferFrom, bufferTo, splitters, buckets);
+        }
+    }
+
+    private void renderFrame(FrameChannel.Frame frame) {
+        long frameStart = System.nanoTime();
+        VisualizerEvents.Frame event = new VisualizerEvents.Frame();
+        event.begin();
+        renderArray(frame.highlight1, frame.highlight2, frame.color,
+                    frame.bufferFrom, frame.bufferTo, frame.splitters, frame.buckets);
+        event.commit(array == null ? 0 : array.length, frames.size());
+        hud.frameFinished(frameStart);
+    }
+
+    private void renderArray(int highlightIndex1, int highlightIndex2, Color highlightColor,
+                             int bufferFrom, int bufferTo, int[] splitters, int[] buckets) {
+        gc.clearRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+        
+        Pathfinder finder = pathfinder;
+        if (finder != null) {
+            pixelView.grid(finder.grid(), finder.states());
+            gc.drawImage(pixelView.upload(), 0, 0);
+            return;
+        }
+        
+        int[] preview = externalPreview;
+        int[] values = preview != null ? preview : array;
+        if (values == null || values.length == 0) return;
+        
+        double barWidth = (double) CANVAS_WIDTH / values.length;
+        double maxHeight = CANVAS_HEIGHT - 50;
+        int minValue;
+        double valueRange;
+        if (view != PixelBufferView.View.BARS || values.length > PIXEL_VIEW_THRESHOLD) {
+            // Bars would be under two pixels wide, or another view was picked, so
+            // render straight into pixels
+            int highlight = argb(highlightColor);
+            int buffer = argb(Color.PLUM);
+            switch (view) {
+                case BARS -> pixelView.rasterize(values, highlightIndex1, highlightIndex2, highlight,
+                                                 bufferFrom, bufferTo, argb(Color.LIGHTBLUE), argb(PIXEL_VIEW_BAND), buffer);
+                case DOTS -> pixelView.dots(values, highlightIndex1, highlightIndex2, highlight, bufferFrom, bufferTo, buffer);
+                case COLOR_WHEEL -> pixelView.colorWheel(values, highlightIndex1, highlightIndex2, highlight);
+                case DISPARITY -> pixelView.disparity(values, highlightIndex1, highlightIndex2, highlight, bufferFrom, bufferTo, buffer);
+            }
+            gc.drawImage(pixelView.upload(), 0, 0);
+            minValue = pixelView.minValue();
+            valueRange = pixelView.valueRange();
+        } else {
+            IntSummaryStatistics range = Arrays.stream(values).summaryStatistics();
+            minValue = Math.min(0, range.getMin());
+            valueRange = Math.max(1, (double) range.getMax() - minValue);
+            // Values are labelled whenever the widest of them fits on a bar
+            boolean showValues = Math.max(valueLabels.width(range.getMin()), valueLabels.width(range.getMax())) <= barWidth - 1;
             
-            for (int i = 0; i < array.length; i++) {
-                double barHeight = (double) array[i] / maxValue * maxHeight;
+            for (int i = 0; i < values.length; i++) {
+                double barHeight = (values[i] - minValue) / valueRange * maxHeight;
                 double x = i * barWidth;
                 double y = CANVAS_HEIGHT - barHeight;
                 
                 // Set color based on highlighting
                 if (i == highlightIndex1 || i == highlightIndex2) {
                     gc.setFill(highlightColor);
+                } else if (i >= bufferFrom && i < bufferTo) {
+                    gc.setFill(Color.PLUM);
                 } else {
                     gc.setFill(Color.LIGHTBLUE);
                 }
@@ -339,20 +1392,49 @@ public class AlgorithmVisualizer extends Application {
                 gc.setStroke(Color.DARKBLUE);
                 gc.strokeRect(x, y, barWidth - 1, barHeight);
                 
-                // Draw value on top of bar if array is small enough
-                if (array.length <= 20) {
-                    gc.setFill(Color.BLACK);
-                    gc.setFont(Font.font("Arial", FontWeight.BOLD, 12));
-                    gc.fillText(String.valueOf(array[i]), x + barWidth/2 - 5, y - 5);
+                // Draw value on top of bar, copied from the prerendered digits
+                if (showValues) {
+                    valueLabels.draw(gc, values[i], x + barWidth/2, y - 5 - valueLabels.height());
                 }
             }
-        });
+        }
+        
+        // Cache stalls as a red wash over the index range they fell on, in every view
+        // that lays indices out left to right
+        long[] heat = cacheHeat;
+        if (heat != null && view != PixelBufferView.View.COLOR_WHEEL) {
+            long hottest = Math.max(1, Arrays.stream(heat).max().orElse(1));
+            double columnWidth = (double) CANVAS_WIDTH / heat.length;
+            for (int c = 0; c < heat.length; c++) {
+                if (heat[c] == 0) continue;
+                gc.setFill(Color.rgb(229, 57, 53, 0.6 * heat[c] / hottest));
+                gc.fillRect(c * columnWidth, 0, Math.ceil(columnWidth), CANVAS_HEIGHT);
+            }
+        }
+        
+        // Sample sort overlays: splitters as horizontal lines, bucket bounds as vertical
+        // ones; only the bars and the dot plot have a value axis for them
+        if (view != PixelBufferView.View.BARS && view != PixelBufferView.View.DOTS) return;
+        if (splitters != null) {
+            gc.setStroke(Color.DARKORANGE);
+            for (int splitter : splitters) {
+                double y = CANVAS_HEIGHT - (splitter - minValue) / valueRange * maxHeight;
+                gc.strokeLine(0, y, CANVAS_WIDTH, y);
+            }
+        }
+        if (buckets != null) {
+            gc.setStroke(Color.DARKGREEN);
+            for (int start : buckets) {
+                gc.strokeLine(start * barWidth, 0, start * barWidth, CANVAS_HEIGHT);
+            }
+        }
     }
 
     private void highlightSortedArray() {
         CompletableFuture.runAsync(() -> {
             try {
-                for (int i = 0; i < array.length && isRunning.get(); i++) {
+                int stride = Math.max(1, array.length / HIGHLIGHT_SWEEP_STEPS);
+                for (int i = 0; i < array.length && isRunning.get(); i += stride) {
                     drawArray(i, -1, Color.LIGHTGREEN);
                     Thread.sleep(20);
                 }
@@ -366,7 +1448,7 @@ public class AlgorithmVisualizer extends Application {
     // Sorting Algorithms
 
     private void bubbleSort() throws InterruptedException {
-        totalSteps = arraySize * arraySize;
+        totalSteps = quadraticSteps();
         currentStep = 0;
         
         for (int i = 0; i < array.length - 1 && isRunning.get(); i++) {
@@ -390,7 +1472,7 @@ public class AlgorithmVisualizer extends Application {
     }
 
     private void selectionSort() throws InterruptedException {
-        totalSteps = arraySize * arraySize;
+        totalSteps = quadraticSteps();
         currentStep = 0;
         
         for (int i = 0; i < array.length - 1 && isRunning.get(); i++) {
@@ -421,7 +1503,7 @@ public class AlgorithmVisualizer extends Application {
     }
 
     private void insertionSort() throws InterruptedException {
-        totalSteps = arraySize * arraySize;
+        totalSteps = quadraticSteps();
         currentStep = 0;
         
         for (int i = 1; i < array.length && isRunning.get(); i++) {
@@ -463,6 +1545,7 @@ public class AlgorithmVisualizer extends Application {
     }
 
     private void merge(int left, int mid, int right) throws InterruptedException {
+        VisualizerEvents.Phase phase = VisualizerEvents.beginPhase();
         int[] leftArray = Arrays.copyOfRange(array, left, mid + 1);
         int[] rightArray = Arrays.copyOfRange(array, mid + 1, right + 1);
         
@@ -503,6 +1586,216 @@ public class AlgorithmVisualizer extends Application {
             k++;
             swaps++;
         }
+        phase.commit("merge", left, right + 1);
+    }
+
+    // Stable block merge sort using only O(1) extra memory: about sqrt(n) distinct
+    // values are pulled to the front as an internal buffer (drawn in plum), merges
+    // swap through that buffer instead of copying, and runs longer than the buffer
+    // are merged with block rotations.
+    private void blockMergeSort() throws InterruptedException {
+        int n = array.length;
+        if (n < 2) return;
+
+        bufferLength = collectBuffer((int) Math.sqrt(n));
+
+        for (int width = 1; width < n - bufferLength && isRunning.get(); width *= 2) {
+            for (int lo = bufferLength; lo < n - width && isRunning.get(); lo += 2 * width) {
+                VisualizerEvents.Phase phase = VisualizerEvents.beginPhase();
+                int hi = Math.min(lo + 2 * width, n);
+                blockMerge(lo, lo + width, hi, bufferLength);
+                phase.commit("block merge", lo, hi);
+            }
+        }
+
+        // The buffer was scrambled by the merges; sort it and merge it back in
+        int buffer = bufferLength;
+        for (int i = 1; i < buffer && isRunning.get(); i++) {
+            for (int j = i; j > 0 && isRunning.get(); j--) {
+                comparisons++;
+                drawArray(j - 1, j, Color.RED);
+                updateStats();
+                waitForDelay();
+
+                if (array[j - 1] <= array[j]) break;
+                swap(j - 1, j);
+                swaps++;
+                drawArray(j - 1, j, Color.ORANGE);
+                updateStats();
+                waitForDelay();
+            }
+        }
+        bufferLength = 0;
+        blockMerge(0, buffer, n, 0);
+    }
+
+    // Gathers up to wanted distinct values (first occurrences) into a sorted block at
+    // the front of the array without disturbing the order of the remaining elements.
+    private int collectBuffer(int wanted) throws InterruptedException {
+        int first = 0;
+        int count = 1;
+        bufferLength = count;
+
+        for (int i = 1; i < array.length && count < wanted && isRunning.get(); i++) {
+            int pos = lowerBound(first, first + count, array[i]);
+            if (pos < first + count && array[pos] == array[i]) continue;
+
+            rotate(first, first + count, i);
+            pos += i - count - first;
+            first = i - count;
+            bufferStart = first;
+            rotate(pos, i, i + 1);
+            count++;
+            bufferLength = count;
+        }
+
+        rotate(0, first, first + count);
+        bufferStart = 0;
+        return count;
+    }
+
+    // Merges the sorted runs [lo, mid) and [mid, hi) in place. Runs that fit in the
+    // internal buffer are merged through it; larger ones are split with a rotation.
+    private void blockMerge(int lo, int mid, int hi, int buffer) throws InterruptedException {
+        if (lo >= mid || mid >= hi || !isRunning.get()) return;
+
+        comparisons++;
+        drawArray(mid - 1, mid, Color.RED);
+        updateStats();
+        waitForDelay();
+        if (array[mid - 1] <= array[mid]) return;
+
+        if (mid - lo <= buffer) {
+            bufferedMergeForward(lo, mid, hi);
+        } else if (hi - mid <= buffer) {
+            bufferedMergeBackward(lo, mid, hi);
+        } else {
+            int leftCut;
+            int rightCut;
+            if (mid - lo >= hi - mid) {
+                leftCut = lo + (mid - lo) / 2;
+                rightCut = lowerBound(mid, hi, array[leftCut]);
+            } else {
+                rightCut = mid + (hi - mid) / 2;
+                leftCut = upperBound(lo, mid, array[rightCut]);
+            }
+            rotate(leftCut, mid, rightCut);
+            int newMid = leftCut + (rightCut - mid);
+            blockMerge(lo, leftCut, newMid, buffer);
+            blockMerge(newMid, rightCut, hi, buffer);
+        }
+    }
+
+    private void bufferedMergeForward(int lo, int mid, int hi) throws InterruptedException {
+        int length = mid - lo;
+        for (int t = 0; t < length && isRunning.get(); t++) {
+            swap(t, lo + t);
+            swaps++;
+            drawArray(t, lo + t, Color.ORANGE);
+            updateStats();
+            waitForDelay();
+        }
+
+        int i = 0, j = mid, k = lo;
+        while (i < length && j < hi && isRunning.get()) {
+            comparisons++;
+            drawArray(i, j, Color.RED);
+            updateStats();
+            waitForDelay();
+
+            int from = array[i] <= array[j] ? i++ : j++;
+            swap(k, from);
+            swaps++;
+            drawArray(k, from, Color.ORANGE);
+            updateStats();
+            waitForDelay();
+            k++;
+        }
+
+        while (i < length && isRunning.get()) {
+            swap(k++, i++);
+            swaps++;
+        }
+    }
+
+    private void bufferedMergeBackward(int lo, int mid, int hi) throws InterruptedException {
+        int length = hi - mid;
+        for (int t = 0; t < length && isRunning.get(); t++) {
+            swap(t, mid + t);
+            swaps++;
+            drawArray(t, mid + t, Color.ORANGE);
+            updateStats();
+            waitForDelay();
+        }
+
+        int i = length - 1, j = mid - 1, k = hi - 1;
+        while (i >= 0 && j >= lo && isRunning.get()) {
+            comparisons++;
+            drawArray(j, i, Color.RED);
+            updateStats();
+            waitForDelay();
+
+            int from = array[j] > array[i] ? j-- : i--;
+            swap(k, from);
+            swaps++;
+            drawArray(k, from, Color.ORANGE);
+            updateStats();
+            waitForDelay();
+            k--;
+        }
+
+        while (i >= 0 && isRunning.get()) {
+            swap(k--, i--);
+            swaps++;
+        }
+    }
+
+    // Rotates [lo, hi) so that [mid, hi) comes before [lo, mid), by three reversals
+    private void rotate(int lo, int mid, int hi) throws InterruptedException {
+        if (lo >= mid || mid >= hi) return;
+        reverse(lo, mid - 1);
+        reverse(mid, hi - 1);
+        reverse(lo, hi - 1);
+    }
+
+    private void reverse(int i, int j) throws InterruptedException {
+        while (i < j && isRunning.get()) {
+            swap(i, j);
+            swaps++;
+            drawArray(i, j, Color.MAGENTA);
+            updateStats();
+            waitForDelay();
+            i++;
+            j--;
+        }
+    }
+
+    // First index in [lo, hi) whose value is not less than value
+    private int lowerBound(int lo, int hi, int value) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            comparisons++;
+            if (array[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First index in [lo, hi) whose value is greater than value
+    private int upperBound(int lo, int hi, int value) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            comparisons++;
+            if (array[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
     }
 
     private void quickSort(int low, int high) throws InterruptedException {
@@ -514,6 +1807,7 @@ public class AlgorithmVisualizer extends Application {
     }
 
     private int partition(int low, int high) throws InterruptedException {
+        VisualizerEvents.Phase phase = VisualizerEvents.beginPhase();
         int pivot = array[high];
         int i = low - 1;
         
@@ -544,18 +1838,76 @@ public class AlgorithmVisualizer extends Application {
         updateStats();
         waitForDelay();
         
+        phase.commit("partition", low, high + 1);
         return i + 1;
     }
 
+    private void vectorQuickSort() throws InterruptedException {
+        String kernel = VectorSort.isVectorized()
+                ? VectorSort.lanes() + "-lane vector kernels"
+                : "scalar fallback (" + VectorSort.lanes() + "-lane species)";
+        Platform.runLater(() -> timingLabel.setText(kernel));
+        vectorQuickSort(0, array.length);
+    }
+
+    // Each partition runs as one SIMD pass and is shown as a single step; ranges
+    // that fit in a vector are finished by the in-register sorting network
+    private void vectorQuickSort(int from, int to) throws InterruptedException {
+        if (to - from < 2 || !isRunning.get()) return;
+        
+        if (to - from <= VectorSort.smallSortLength()) {
+            VectorSort.sortSmall(array, from, to);
+            comparisons += to - from;
+            swaps += to - from;
+            drawArray(from, to - 1, Color.GREEN);
+            updateStats();
+            waitForDelay();
+            return;
+        }
+        
+        int pivot = VectorSort.medianOfThree(array, from, to);
+        drawArray(from, to - 1, Color.PURPLE);
+        updateStats();
+        waitForDelay();
+        
+        VisualizerEvents.Phase phase = VisualizerEvents.beginPhase();
+        int split = VectorSort.partition(array, from, to, pivot);
+        comparisons += to - from;
+        swaps += to - from;
+        // The phase covers [from, to) whichever way the range is split
+        int low = from;
+        if (split == from) {
+            // The pivot is the minimum, so every copy of it is already in place
+            if (pivot == Integer.MAX_VALUE) {
+                phase.commit("vector partition", from, to);
+                return;
+            }
+            low = VectorSort.partition(array, from, to, pivot + 1);
+            comparisons += to - split;
+            swaps += to - split;
+            split = low;
+        }
+        phase.commit("vector partition", from, to);
+        drawArray(split - 1, split, Color.ORANGE);
+        updateStats();
+        waitForDelay();
+        
+        vectorQuickSort(low, split);
+        vectorQuickSort(split, to);
+    }
+
     private void heapSort() throws InterruptedException {
-        totalSteps = arraySize * arraySize;
+        totalSteps = quadraticSteps();
         
         // Build heap
+        VisualizerEvents.Phase phase = VisualizerEvents.beginPhase();
         for (int i = array.length / 2 - 1; i >= 0 && isRunning.get(); i--) {
             heapify(array.length, i);
         }
+        phase.commit("heapify", 0, array.length);
         
         // Extract elements from heap one by one
+        phase = VisualizerEvents.beginPhase();
         for (int i = array.length - 1; i > 0 && isRunning.get(); i--) {
             swap(0, i);
             swaps++;
@@ -565,6 +1917,7 @@ public class AlgorithmVisualizer extends Application {
             
             heapify(i, 0);
         }
+        phase.commit("extract", 0, array.length);
     }
 
     private void heapify(int n, int i) throws InterruptedException {
@@ -597,6 +1950,158 @@ public class AlgorithmVisualizer extends Application {
         }
     }
 
+    // Heap sort on a heap with arity children per node, sifting down in a loop; arity 2
+    // is heapSort without the recursion. See HeapSorts for the uninstrumented kernels.
+    private void dAryHeapSort(int arity) throws InterruptedException {
+        totalSteps = quadraticSteps();
+
+        VisualizerEvents.Phase phase = VisualizerEvents.beginPhase();
+        for (int i = (array.length + arity - 2) / arity - 1; i >= 0 && isRunning.get(); i--) {
+            siftDown(array.length, i, arity);
+        }
+        phase.commit("heapify", 0, array.length);
+
+        phase = VisualizerEvents.beginPhase();
+        for (int i = array.length - 1; i > 0 && isRunning.get(); i--) {
+            swap(0, i);
+            swaps++;
+            drawArray(0, i, Color.ORANGE);
+            updateStats();
+            waitForDelay();
+
+            siftDown(i, 0, arity);
+        }
+        phase.commit("extract", 0, array.length);
+    }
+
+    private void siftDown(int n, int i, int arity) throws InterruptedException {
+        while (isRunning.get()) {
+            int first = arity * i + 1;
+            if (first >= n) return;
+            int largest = first;
+            for (int child = first + 1; child < Math.min(first + arity, n); child++) {
+                comparisons++;
+                if (array[child] > array[largest]) {
+                    largest = child;
+                }
+            }
+            comparisons++;
+            if (array[largest] <= array[i]) return;
+
+            swap(i, largest);
+            swaps++;
+            drawArray(i, largest, Color.RED);
+            updateStats();
+            waitForDelay();
+            i = largest;
+        }
+    }
+
+    // Floyd's heap sort: each sift follows the larger children to a leaf at one
+    // comparison per level, climbs back to where the sifted value belongs, and rotates
+    // it into place along the path
+    private void bottomUpHeapSort() throws InterruptedException {
+        totalSteps = quadraticSteps();
+
+        VisualizerEvents.Phase phase = VisualizerEvents.beginPhase();
+        for (int i = array.length / 2 - 1; i >= 0 && isRunning.get(); i--) {
+            siftToLeaf(array.length, i);
+        }
+        phase.commit("heapify", 0, array.length);
+
+        phase = VisualizerEvents.beginPhase();
+        for (int i = array.length - 1; i > 0 && isRunning.get(); i--) {
+            swap(0, i);
+            swaps++;
+            drawArray(0, i, Color.ORANGE);
+            updateStats();
+            waitForDelay();
+
+            siftToLeaf(i, 0);
+        }
+        phase.commit("extract", 0, array.length);
+    }
+
+    private void siftToLeaf(int n, int i) throws InterruptedException {
+        int j = i;
+        while (2 * j + 2 < n && isRunning.get()) {
+            comparisons++;
+            j = array[2 * j + 2] > array[2 * j + 1] ? 2 * j + 2 : 2 * j + 1;
+            drawArray(i, j, Color.YELLOW);
+            updateStats();
+            waitForDelay();
+        }
+        if (2 * j + 1 < n) {
+            j = 2 * j + 1;
+        }
+        while (j > i) {
+            comparisons++;
+            if (array[j] >= array[i]) break;
+            j = (j - 1) / 2;
+        }
+
+        // Swapping a[i] with each path node from j back up leaves a[i] at j and moves
+        // every node above it up a level
+        for (int k = j; k > i && isRunning.get(); k = (k - 1) / 2) {
+            swap(i, k);
+            swaps++;
+            drawArray(i, k, Color.RED);
+            updateStats();
+            waitForDelay();
+        }
+    }
+
+    private void sampleSort(int threads) throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            SampleSort sorter = new SampleSort(pool, seed);
+            totalSteps = SampleSort.Phase.values().length;
+            StringBuilder timings = new StringBuilder();
+            // Each phase event runs from the end of the previous phase's pause to the
+            // listener call, so the pauses between phases are left out
+            VisualizerEvents.Phase[] event = { VisualizerEvents.beginPhase() };
+
+            sorter.sort(array, (phase, nanos) -> {
+                event[0].commit(phase.toString(), 0, array.length);
+                switch (phase) {
+                    case SAMPLING -> splitterValues = sorter.splitters();
+                    case SCATTER -> bucketStarts = sorter.bucketStarts();
+                    default -> { }
+                }
+                currentStep++;
+                timings.append(timings.length() == 0 ? "" : " | ")
+                       .append(phase).append(' ').append(formatNanos(nanos));
+                String text = timings + " (" + threads + " threads)";
+                Platform.runLater(() -> timingLabel.setText(text));
+                updateStatus("Sample Sort: " + phase + " done");
+
+                drawArray();
+                updateStats();
+                for (int i = 0; i < PHASE_PAUSE_STEPS; i++) {
+                    waitForDelay();
+                }
+                event[0] = VisualizerEvents.beginPhase();
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private int quadraticSteps() {
+        return (int) Math.min(Integer.MAX_VALUE, (long) arraySize * arraySize);
+    }
+
+    private static int argb(Color color) {
+        return (int) Math.round(color.getOpacity() * 255) << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    private static String formatNanos(long nanos) {
+        return String.format("%.2f ms", nanos / 1e6);
+    }
+
     private void swap(int i, int j) {
         int temp = array[i];
         array[i] = array[j];
@@ -655,6 +2160,60 @@ public class AlgorithmVisualizer extends Application {
                 -fx-background-radius: 4px;
             }
             
+            .external-button {
+                -fx-background-color: #9C27B0;
+                -fx-text-fill: white;
+                -fx-font-weight: bold;
+                -fx-padding: 8 16 8 16;
+                -fx-border-radius: 4px;
+                -fx-background-radius: 4px;
+            }
+            
+            .search-button {
+                -fx-background-color: #3F51B5;
+                -fx-text-fill: white;
+                -fx-font-weight: bold;
+                -fx-padding: 8 16 8 16;
+                -fx-border-radius: 4px;
+                -fx-background-radius: 4px;
+            }
+            
+            .path-button {
+                -fx-background-color: #795548;
+                -fx-text-fill: white;
+                -fx-font-weight: bold;
+                -fx-padding: 8 16 8 16;
+                -fx-border-radius: 4px;
+                -fx-background-radius: 4px;
+            }
+            
+            .cache-button {
+                -fx-background-color: #E91E63;
+                -fx-text-fill: white;
+                -fx-font-weight: bold;
+                -fx-padding: 8 16 8 16;
+                -fx-border-radius: 4px;
+                -fx-background-radius: 4px;
+            }
+            
+            .replay-button {
+                -fx-background-color: #607D8B;
+                -fx-text-fill: white;
+                -fx-font-weight: bold;
+                -fx-padding: 8 16 8 16;
+                -fx-border-radius: 4px;
+                -fx-background-radius: 4px;
+            }
+            
+            .export-button {
+                -fx-background-color: #009688;
+                -fx-text-fill: white;
+                -fx-font-weight: bold;
+                -fx-padding: 8 16 8 16;
+                -fx-border-radius: 4px;
+                -fx-background-radius: 4px;
+            }
+            
             .status-label {
                 -fx-font-weight: bold;
                 -fx-font-size: 14px;
@@ -677,6 +2236,9 @@ public class AlgorithmVisualizer extends Application {
  *     requires javafx.controls;
  *     requires javafx.fxml;
  *     requires java.desktop;
+ *     requires java.management;
+ *     requires jdk.jfr;
+ *     requires jdk.incubator.vector;
  *     
  *     exports your.package.name;
  * }
@@ -694,5 +2256,9 @@ public class AlgorithmVisualizer extends Application {
  *     <version>17.0.2</version>
  * </dependency>
  * 
- * 3. To run: java --module-path /path/to/javafx/lib --add-modules javafx.controls,javafx.fxml Main
+ * 3. To run: java --module-path /path/to/javafx/lib --add-modules javafx.controls,javafx.fxml,jdk.incubator.vector Main
+ *    (javac needs --add-modules jdk.incubator.vector as well for VectorSort, and
+ *    SegmentIntStore needs Java 22 or later for the Foreign Function & Memory API)
+ *    Add -XX:StartFlightRecording:filename=run.jfr,settings=profile to record the
+ *    algovis.Run, algovis.Phase and algovis.Frame events for Mission Control.
  */
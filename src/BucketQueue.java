@@ -0,0 +1,58 @@
+import java.util.Arrays;
+
+// Dial's bucket queue for keys that never fall below the last one polled and never
+// run more than span past it, as in Dijkstra and consistent A* with small integer
+// weights. One bucket per key in a ring of span + 1, so offer and poll are O(1);
+// a lowered key is queued again and the old entry left stale for the caller to skip.
+// Keys must not be negative; the first one queued sets the base.
+final class BucketQueue implements IntPriorityQueue {
+    private static final int INITIAL_BUCKET_CAPACITY = 16;
+
+    private final int[][] buckets;
+    private final int[] sizes;
+    private int cursor = -1;
+    private long size;
+
+    BucketQueue(int span) {
+        buckets = new int[span + 1][INITIAL_BUCKET_CAPACITY];
+        sizes = new int[span + 1];
+    }
+
+    @Override
+    public void offer(int id, int key) {
+        if (cursor < 0) {
+            cursor = key;
+        }
+        if (key < cursor || key - cursor >= buckets.length) {
+            throw new IllegalArgumentException("Key " + key + " outside [" + cursor + ", " + (cursor + buckets.length) + ")");
+        }
+        int bucket = key % buckets.length;
+        if (sizes[bucket] == buckets[bucket].length) {
+            buckets[bucket] = Arrays.copyOf(buckets[bucket], 2 * sizes[bucket]);
+        }
+        buckets[bucket][sizes[bucket]++] = id;
+        size++;
+    }
+
+    @Override
+    public int poll() {
+        while (sizes[cursor % buckets.length] == 0) {
+            cursor++;
+        }
+        int bucket = cursor % buckets.length;
+        size--;
+        return buckets[bucket][--sizes[bucket]];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(sizes, 0);
+        cursor = -1;
+        size = 0;
+    }
+}
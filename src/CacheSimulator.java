@@ -0,0 +1,263 @@
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Replays the element reads and writes of a recorded sort through a model of the
+// data caches: any number of set-associative LRU levels, checked in order, and
+// optionally a TLB in front of them. Every access costs the latency of the first level
+// that holds its line, or the memory latency, plus a page walk on a TLB miss; a miss
+// fills the line into every level above, and writes allocate like reads. There is no
+// prefetching and no overlap of misses, so the cycle count is a serial estimate: good
+// for telling sequential scans from scattered ones, not for predicting run times.
+// Each int[] seen is placed on its own page-aligned range of a flat address space.
+// Stall cycles (beyond a first-level hit) are also summed per cache line of the first
+// array seen, the one being sorted, for drawing where the misses fall.
+final class CacheSimulator implements OperationLog.Accesses {
+    static final int INT_BYTES = Integer.BYTES;
+
+    // One set-associative level; a TLB is a level whose lines are pages
+    static final class Level {
+        private final String name;
+        private final int lineShift;
+        private final int setMask;
+        private final int ways;
+        private final int latency;
+        private final long[] tags;
+        private final long[] stamps;
+        private long clock;
+        private long hits;
+        private long misses;
+
+        Level(String name, int sizeBytes, int lineBytes, int ways, int latency) {
+            if (Integer.bitCount(lineBytes) != 1 || ways < 1 || sizeBytes % (lineBytes * ways) != 0) {
+                throw new IllegalArgumentException(name + ": size must be a multiple of a power-of-two line times the ways");
+            }
+            int sets = sizeBytes / (lineBytes * ways);
+            if (Integer.bitCount(sets) != 1) {
+                throw new IllegalArgumentException(name + ": " + sets + " sets is not a power of two");
+            }
+            this.name = name;
+            this.lineShift = Integer.numberOfTrailingZeros(lineBytes);
+            this.setMask = sets - 1;
+            this.ways = ways;
+            this.latency = latency;
+            tags = new long[sets * ways];
+            stamps = new long[sets * ways];
+            Arrays.fill(tags, -1);
+        }
+
+        // A TLB of entries translations for pages of pageBytes; latency is the page walk
+        static Level tlb(int entries, int ways, int pageBytes, int walkCycles) {
+            return new Level("TLB", entries * pageBytes, pageBytes, ways, walkCycles);
+        }
+
+        String name() {
+            return name;
+        }
+
+        int lineBytes() {
+            return 1 << lineShift;
+        }
+
+        int latency() {
+            return latency;
+        }
+
+        long hits() {
+            return hits;
+        }
+
+        long misses() {
+            return misses;
+        }
+
+        double missRate() {
+            return hits + misses == 0 ? 0 : (double) misses / (hits + misses);
+        }
+
+        // Looks up the line holding address, filling it over the least recently used
+        // way on a miss; returns whether it was already there
+        boolean access(long address) {
+            long line = address >>> lineShift;
+            int base = (int) (line & setMask) * ways;
+            long now = ++clock;
+            int victim = base;
+            for (int way = base; way < base + ways; way++) {
+                if (tags[way] == line) {
+                    stamps[way] = now;
+                    hits++;
+                    return true;
+                }
+                if (stamps[way] < stamps[victim]) victim = way;
+            }
+            tags[victim] = line;
+            stamps[victim] = now;
+            misses++;
+            return false;
+        }
+
+        void reset() {
+            Arrays.fill(tags, -1);
+            Arrays.fill(stamps, 0);
+            clock = 0;
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    private static final int PAGE_BYTES = 4096;
+
+    private final Level[] levels;
+    private final Level tlb;
+    private final int memoryLatency;
+    private final Map<int[], Long> bases = new IdentityHashMap<>();
+    private long nextBase;
+    // The last two arrays looked up, enough for a merge between an array and its buffer
+    private int[] lastArray;
+    private long lastBase;
+    private int[] previousArray;
+    private long previousBase;
+    private int[] tracked;
+    private long[] lineStalls;
+    private long accesses;
+    private long writes;
+    private long memoryAccesses;
+    private long cycles;
+
+    // levels from the first to the last level cache; tlb may be null
+    CacheSimulator(List<Level> levels, Level tlb, int memoryLatency) {
+        this.levels = levels.toArray(new Level[0]);
+        this.tlb = tlb;
+        this.memoryLatency = memoryLatency;
+    }
+
+    // Roughly a current desktop core: 32 KiB 8-way L1d, 1 MiB 16-way L2, a 32 MiB
+    // 16-way share of L3, 64-byte lines, and a 1536-entry 12-way second-level TLB
+    static CacheSimulator typical(boolean withTlb) {
+        return new CacheSimulator(List.of(
+                new Level("L1", 32 << 10, 64, 8, 4),
+                new Level("L2", 1 << 20, 64, 16, 14),
+                new Level("L3", 32 << 20, 64, 16, 50)),
+                withTlb ? Level.tlb(1536, 12, PAGE_BYTES, 30) : null, 200);
+    }
+
+    @Override
+    public void access(int[] array, int index, boolean write) {
+        long address = base(array) + (long) index * INT_BYTES;
+        accesses++;
+        if (write) writes++;
+        long cost = 0;
+        if (tlb != null && !tlb.access(address)) {
+            cost += tlb.latency();
+        }
+        int level = 0;
+        while (level < levels.length && !levels[level].access(address)) {
+            level++;
+        }
+        if (level == levels.length) {
+            memoryAccesses++;
+            cost += memoryLatency;
+        } else {
+            cost += levels[level].latency();
+        }
+        cycles += cost;
+        if (array == tracked && levels.length > 0) {
+            lineStalls[(int) ((long) index * INT_BYTES >>> levels[0].lineShift)] += cost - levels[0].latency();
+        }
+    }
+
+    private long base(int[] array) {
+        if (array == lastArray) return lastBase;
+        if (array == previousArray) {
+            previousArray = lastArray;
+            lastArray = array;
+            long base = previousBase;
+            previousBase = lastBase;
+            lastBase = base;
+            return base;
+        }
+        Long base = bases.get(array);
+        if (base == null) {
+            base = nextBase;
+            bases.put(array, base);
+            nextBase += ((long) array.length * INT_BYTES + PAGE_BYTES - 1) / PAGE_BYTES * PAGE_BYTES + PAGE_BYTES;
+            if (tracked == null && levels.length > 0) {
+                tracked = array;
+                lineStalls = new long[(int) (((long) array.length * INT_BYTES + levels[0].lineBytes() - 1) / levels[0].lineBytes())];
+            }
+        }
+        previousArray = lastArray;
+        previousBase = lastBase;
+        lastArray = array;
+        lastBase = base;
+        return base;
+    }
+
+    List<Level> levels() {
+        return List.of(levels);
+    }
+
+    // null when no TLB is modelled
+    Level tlb() {
+        return tlb;
+    }
+
+    long accesses() {
+        return accesses;
+    }
+
+    long writes() {
+        return writes;
+    }
+
+    // Accesses that missed every level
+    long memoryAccesses() {
+        return memoryAccesses;
+    }
+
+    long cycles() {
+        return cycles;
+    }
+
+    // Stall cycles summed over the elements of the sorted array in each of columns
+    // equal index ranges, zero before any access
+    long[] stallHeat(int columns, int length) {
+        long[] heat = new long[columns];
+        if (lineStalls == null || length == 0) return heat;
+        int perLine = levels[0].lineBytes() / INT_BYTES;
+        for (int line = 0; line < lineStalls.length; line++) {
+            heat[(int) ((long) line * perLine * columns / length)] += lineStalls[line];
+        }
+        return heat;
+    }
+
+    void reset() {
+        for (Level level : levels) {
+            level.reset();
+        }
+        if (tlb != null) tlb.reset();
+        bases.clear();
+        nextBase = 0;
+        lastArray = null;
+        previousArray = null;
+        tracked = null;
+        lineStalls = null;
+        accesses = 0;
+        writes = 0;
+        memoryAccesses = 0;
+        cycles = 0;
+    }
+
+    // Misses per level and the cycle estimate on one line
+    String describe() {
+        StringBuilder text = new StringBuilder();
+        for (Level level : levels) {
+            text.append(String.format("%s miss %.1f%% | ", level.name(), level.missRate() * 100));
+        }
+        if (tlb != null) {
+            text.append(String.format("TLB miss %.2f%% | ", tlb.missRate() * 100));
+        }
+        return text.append(String.format("%,d accesses | ~%,d cycles", accesses, cycles)).toString();
+    }
+}
@@ -0,0 +1,36 @@
+import java.util.Comparator;
+
+// Comparator wrapper counting the calls that reach the wrapped comparator and,
+// when timed, the nanoseconds spent inside it. Timing every call costs two
+// nanoTime reads, so call counts alone are the cheap mode. Not thread-safe.
+final class CountingComparator<T> implements Comparator<T> {
+    private final Comparator<? super T> comparator;
+    private final boolean timed;
+    private long calls;
+    private long nanos;
+
+    CountingComparator(Comparator<? super T> comparator, boolean timed) {
+        this.comparator = comparator;
+        this.timed = timed;
+    }
+
+    @Override
+    public int compare(T a, T b) {
+        calls++;
+        if (!timed) {
+            return comparator.compare(a, b);
+        }
+        long start = System.nanoTime();
+        int result = comparator.compare(a, b);
+        nanos += System.nanoTime() - start;
+        return result;
+    }
+
+    long calls() {
+        return calls;
+    }
+
+    long nanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,180 @@
+// SortKernels specialized for double[]; keep the two in step. The kernels compare
+// with < and >, so NaNs are first moved past the end of the range being sorted and
+// afterwards -0.0 is put before 0.0, giving the same order as Arrays.sort.
+final class DoubleSortKernels {
+    private DoubleSortKernels() {
+    }
+
+    static void bubbleSort(double[] a) {
+        int n = moveNaNsToEnd(a);
+        bubbleSort(a, n);
+        orderZeros(a, n);
+    }
+
+    private static void bubbleSort(double[] a, int n) {
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = 0; j < n - i - 1; j++) {
+                if (a[j] > a[j + 1]) {
+                    swap(a, j, j + 1);
+                }
+            }
+        }
+    }
+
+    static void selectionSort(double[] a) {
+        int n = moveNaNsToEnd(a);
+        selectionSort(a, n);
+        orderZeros(a, n);
+    }
+
+    private static void selectionSort(double[] a, int n) {
+        for (int i = 0; i < n - 1; i++) {
+            int minIdx = i;
+            for (int j = i + 1; j < n; j++) {
+                if (a[j] < a[minIdx]) {
+                    minIdx = j;
+                }
+            }
+            swap(a, i, minIdx);
+        }
+    }
+
+    static void insertionSort(double[] a) {
+        int n = moveNaNsToEnd(a);
+        insertionSort(a, 0, n);
+        orderZeros(a, n);
+    }
+
+    // Top-down merge sort like AlgorithmVisualizer.mergeSort, sharing one buffer
+    static void mergeSort(double[] a) {
+        int n = moveNaNsToEnd(a);
+        mergeSort(a, new double[n], 0, n);
+        orderZeros(a, n);
+    }
+
+    private static void mergeSort(double[] a, double[] buffer, int from, int to) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid);
+        mergeSort(a, buffer, mid, to);
+        if (a[mid - 1] <= a[mid]) return;
+
+        System.arraycopy(a, from, buffer, from, mid - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            a[k++] = buffer[i] <= a[j] ? buffer[i++] : a[j++];
+        }
+        System.arraycopy(buffer, i, a, k, mid - i);
+    }
+
+    static void quickSort(double[] a) {
+        int n = moveNaNsToEnd(a);
+        quickSort(a, 0, n - 1);
+        orderZeros(a, n);
+    }
+
+    // Same recursion and Lomuto partition as AlgorithmVisualizer.quickSort
+    private static void quickSort(double[] a, int low, int high) {
+        while (low < high) {
+            int pi = lomutoPartition(a, low, high);
+            if (pi - low < high - pi) {
+                quickSort(a, low, pi - 1);
+                low = pi + 1;
+            } else {
+                quickSort(a, pi + 1, high);
+                high = pi - 1;
+            }
+        }
+    }
+
+    private static int lomutoPartition(double[] a, int low, int high) {
+        double pivot = a[high];
+        int i = low - 1;
+        for (int j = low; j < high; j++) {
+            if (a[j] < pivot) {
+                i++;
+                swap(a, i, j);
+            }
+        }
+        swap(a, i + 1, high);
+        return i + 1;
+    }
+
+    static void heapSort(double[] a) {
+        int n = moveNaNsToEnd(a);
+        heapSort(a, n);
+        orderZeros(a, n);
+    }
+
+    private static void heapSort(double[] a, int n) {
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, 0, end);
+            siftDown(a, 0, end);
+        }
+    }
+
+    private static void siftDown(double[] a, int i, int n) {
+        double value = a[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) break;
+            if (child + 1 < n && a[child + 1] > a[child]) child++;
+            if (a[child] <= value) break;
+            a[i] = a[child];
+            i = child;
+        }
+        a[i] = value;
+    }
+
+    private static void insertionSort(double[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            double key = a[i];
+            int j = i - 1;
+            while (j >= from && a[j] > key) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    private static void swap(double[] a, int i, int j) {
+        double temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    // Swaps every NaN to the back and returns how many elements are left in front
+    private static int moveNaNsToEnd(double[] a) {
+        int n = a.length;
+        for (int i = n - 1; i >= 0; i--) {
+            if (Double.isNaN(a[i])) {
+                swap(a, i, --n);
+            }
+        }
+        return n;
+    }
+
+    // Zeros compare equal, so rewrite the run of them with the negative ones first
+    private static void orderZeros(double[] a, int n) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < 0.0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int negative = 0, end = lo;
+        for (; end < n && a[end] == 0.0; end++) {
+            if (Double.doubleToRawLongBits(a[end]) < 0) negative++;
+        }
+        for (int i = lo; i < end; i++) {
+            a[i] = i - lo < negative ? -0.0 : 0.0;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+// Times every combination of algorithms, sizes, input distributions and repetitions on
+// the uninstrumented kernels. Each series (an algorithm on a distribution) is a task on
+// a work-stealing pool with as many workers as the parallelism asked for; it forks the
+// repetitions of one size, joins them, and only then moves to the next size. A kernel
+// never forks, so at most one sort runs per worker: with one worker per core the sorts
+// do not compete for a core, and with one worker they do not compete for memory
+// bandwidth or the shared cache either. Java cannot pin a thread to a core, so that is
+// as close as it gets.
+//
+// A cell regenerates its input from a seed shared by every algorithm and sorts it again
+// until MIN_CELL_NANOS of sorting have passed, so small sizes are not lost in timer
+// resolution; its time is the mean per sort. Cells wait for their arrays to fit in a
+// share of the free heap, so the largest ones run one at a time whatever the
+// parallelism. Before each size, the series' median times so far are fitted and
+// extrapolated, and the rest of the series is skipped if one sort would take longer
+// than the time limit: bubble sort at 10^8, or Lomuto quicksort on few unique values,
+// would never finish. The quadratic kernels also stop when the matrix is cancelled.
+final class ExperimentMatrix {
+    enum Algorithm {
+        BUBBLE("Bubble Sort", SortKernels::bubbleSort),
+        SELECTION("Selection Sort", SortKernels::selectionSort),
+        INSERTION("Insertion Sort", SortKernels::insertionSort),
+        MERGE("Merge Sort", (a, stop) -> SortKernels.mergeSort(a)),
+        QUICK("Quick Sort", (a, stop) -> SortKernels.quickSort(a)),
+        HEAP("Heap Sort", (a, stop) -> SortKernels.heapSort(a)),
+        HEAP_BOTTOM_UP("Heap Sort (Bottom-up)", (a, stop) -> HeapSorts.bottomUp(a)),
+        HEAP_4_ARY("Heap Sort (4-ary)", (a, stop) -> HeapSorts.dAry(a, 4)),
+        JDK("Arrays.sort (int[])", (a, stop) -> Arrays.sort(a));
+
+        private final String label;
+        // Only the quadratic kernels look at stop
+        private final BiConsumer<int[], BooleanSupplier> kernel;
+
+        Algorithm(String label, BiConsumer<int[], BooleanSupplier> kernel) {
+            this.label = label;
+            this.kernel = kernel;
+        }
+
+        void sort(int[] a, BooleanSupplier stop) {
+            kernel.accept(a, stop);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    record Cell(Algorithm algorithm, InputGenerator.Distribution distribution, int size, int repetition) {
+    }
+
+    // nanos is the mean time of one sort over runs sorts; sorted checks the first of them
+    record Measurement(Cell cell, long nanos, int runs, boolean sorted) {
+    }
+
+    interface Listener {
+        void measured(Measurement measurement);
+
+        void skipped(Cell cell, String reason);
+    }
+
+    static final int MAX_SIZE = 100_000_000;
+    private static final long MIN_CELL_NANOS = 20_000_000L;
+    // The input plus a merge buffer
+    private static final int BYTES_PER_ELEMENT = 2 * Integer.BYTES;
+    private static final int WARMUP_SIZE = 4096;
+    private static final int WARMUP_RUNS = 20;
+    private static final long MIN_FIT_NANOS = 1_000_000L;
+
+    private record Series(Algorithm algorithm, InputGenerator.Distribution distribution) {
+    }
+
+    private final List<Algorithm> algorithms;
+    private final List<Series> series = new ArrayList<>();
+    private final int[] sizes;
+    private final int repetitions;
+    private final long seed;
+    private final int parallelism;
+    private final long timeLimitNanos;
+    private volatile boolean cancelled;
+
+    ExperimentMatrix(List<Algorithm> algorithms, List<InputGenerator.Distribution> distributions, int[] sizes,
+                     int repetitions, long seed, int parallelism, long timeLimitNanos) {
+        this.algorithms = List.copyOf(algorithms);
+        this.sizes = sizes.clone();
+        Arrays.sort(this.sizes);
+        this.repetitions = repetitions;
+        this.seed = seed;
+        this.parallelism = parallelism;
+        this.timeLimitNanos = timeLimitNanos;
+        for (InputGenerator.Distribution distribution : distributions) {
+            for (Algorithm algorithm : algorithms) {
+                series.add(new Series(algorithm, distribution));
+            }
+        }
+    }
+
+    // stepsPerDecade sizes between each power of ten, from min to max inclusive
+    static int[] geometricSizes(int min, int max, int stepsPerDecade) {
+        List<Integer> sizes = new ArrayList<>();
+        double decades = Math.log10((double) max / min);
+        int steps = (int) Math.round(decades * stepsPerDecade);
+        for (int step = 0; step <= steps; step++) {
+            int size = (int) Math.round(min * Math.pow(10, (double) step / stepsPerDecade));
+            if (sizes.isEmpty() || size > sizes.get(sizes.size() - 1)) {
+                sizes.add(Math.min(size, max));
+            }
+        }
+        return sizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // The exponent of n that a series' median times per size grow with. Times under
+    // MIN_FIT_NANOS are left out when at least two others remain, since fixed per-call
+    // costs flatten the curve at small sizes; NaN with fewer than two sizes.
+    static double fitExponent(Map<Integer, Long> medianNanos) {
+        long slow = medianNanos.values().stream().filter(nanos -> nanos >= MIN_FIT_NANOS).count();
+        List<Map.Entry<Integer, Long>> points = medianNanos.entrySet().stream()
+                .filter(point -> slow < 2 || point.getValue() >= MIN_FIT_NANOS).toList();
+        double[] sizes = points.stream().mapToDouble(Map.Entry::getKey).toArray();
+        double[] nanos = points.stream().mapToDouble(point -> Math.max(1, point.getValue())).toArray();
+        return sizes.length < 2 ? Double.NaN : leastSquaresSlope(sizes, nanos);
+    }
+
+    // Slope of log t against log n; NaN when every n is the same
+    private static double leastSquaresSlope(double[] sizes, double[] nanos) {
+        int n = sizes.length;
+        double meanX = 0, meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanX += Math.log(sizes[i]);
+            meanY += Math.log(nanos[i]);
+        }
+        meanX /= n;
+        meanY /= n;
+        double covariance = 0, variance = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = Math.log(sizes[i]) - meanX;
+            covariance += dx * (Math.log(nanos[i]) - meanY);
+            variance += dx * dx;
+        }
+        return variance == 0 ? Double.NaN : covariance / variance;
+    }
+
+    int cells() {
+        return series.size() * sizes.length * repetitions;
+    }
+
+    // Cells not started yet are skipped, and running quadratic sorts stop; the other
+    // sorts already running finish first
+    void cancel() {
+        cancelled = true;
+    }
+
+    // Runs every cell, calling the listener from the pool threads, and returns once
+    // all of them are measured or skipped
+    void run(Listener listener) throws InterruptedException {
+        warmUp();
+        Runtime runtime = Runtime.getRuntime();
+        long freeBytes = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        int budgetKb = (int) Math.min(Integer.MAX_VALUE, freeBytes * 3 / 4 / 1024);
+        Semaphore memory = new Semaphore(budgetKb);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Series next : series) {
+                tasks.add(pool.submit(() -> runSeries(next, memory, budgetKb, listener)));
+            }
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Experiment failed", e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Measures one size after another, so the median times so far can decide whether
+    // the next size is worth starting
+    private void runSeries(Series series, Semaphore memory, int budgetKb, Listener listener) {
+        TreeMap<Integer, Long> medians = new TreeMap<>();
+        for (int size : sizes) {
+            String reason = skipReason(medians, size, budgetKb);
+            if (reason != null) {
+                for (int repetition = 0; repetition < repetitions; repetition++) {
+                    listener.skipped(new Cell(series.algorithm(), series.distribution(), size, repetition), reason);
+                }
+                continue;
+            }
+            List<ForkJoinTask<Measurement>> cells = new ArrayList<>();
+            for (int repetition = 0; repetition < repetitions; repetition++) {
+                Cell cell = new Cell(series.algorithm(), series.distribution(), size, repetition);
+                cells.add(ForkJoinTask.adapt(() -> runCell(cell, memory, listener)));
+            }
+            long[] nanos = ForkJoinTask.invokeAll(cells).stream()
+                    .map(ForkJoinTask::join)
+                    .filter(measurement -> measurement != null)
+                    .mapToLong(Measurement::nanos)
+                    .sorted()
+                    .toArray();
+            if (nanos.length > 0) {
+                medians.put(size, nanos[nanos.length / 2]);
+            }
+        }
+    }
+
+    // Why size is not worth measuring, or null to measure it
+    private String skipReason(TreeMap<Integer, Long> medians, int size, int budgetKb) {
+        if (cancelled) return "cancelled";
+        int neededKb = neededKb(size);
+        if (neededKb > budgetKb) {
+            return String.format("needs %,d MB of heap, %,d MB free", neededKb >> 10, budgetKb >> 10);
+        }
+        if (medians.isEmpty()) return null;
+        Map.Entry<Integer, Long> last = medians.lastEntry();
+        if (last.getValue() > timeLimitNanos) {
+            return String.format("over the time limit from n = %,d", last.getKey());
+        }
+        double fitted = fitExponent(medians);
+        if (Double.isNaN(fitted)) return null;
+        // No sort gets faster per element as n grows; flatter fits are timer noise
+        double exponent = Math.max(1, fitted);
+        double predicted = last.getValue() * Math.pow((double) size / last.getKey(), exponent);
+        return predicted > timeLimitNanos
+                ? String.format("predicted %.0f s at n^%.2f, over the time limit", predicted / 1e9, exponent) : null;
+    }
+
+    private static int neededKb(int size) {
+        return (int) Math.max(1, (long) size * BYTES_PER_ELEMENT / 1024);
+    }
+
+    // The measurement, or null when the cell was skipped
+    private Measurement runCell(Cell cell, Semaphore memory, Listener listener) {
+        int neededKb = neededKb(cell.size());
+        memory.acquireUninterruptibly(neededKb);
+        try {
+            Measurement measurement = cancelled ? null : measure(cell);
+            if (measurement == null) {
+                listener.skipped(cell, "cancelled");
+            } else {
+                listener.measured(measurement);
+            }
+            return measurement;
+        } finally {
+            memory.release(neededKb);
+        }
+    }
+
+    // null if cancelled before a whole sort was timed
+    private Measurement measure(Cell cell) {
+        long inputSeed = seed ^ ((long) cell.size() * 0x9E3779B97F4A7C15L
+                + cell.distribution().ordinal() * 1_000_003L + cell.repetition());
+        BooleanSupplier stop = () -> cancelled;
+        long total = 0;
+        int runs = 0;
+        boolean sorted = true;
+        do {
+            int[] a = InputGenerator.generate(cell.distribution(), cell.size(), inputSeed);
+            long start = System.nanoTime();
+            cell.algorithm().sort(a, stop);
+            long nanos = System.nanoTime() - start;
+            if (cancelled) break;
+            if (runs == 0) {
+                sorted = SortVerifier.firstUnsorted(a) < 0;
+            }
+            total += nanos;
+            runs++;
+        } while (total < MIN_CELL_NANOS && total / runs <= timeLimitNanos);
+        return runs == 0 ? null : new Measurement(cell, total / runs, runs, sorted);
+    }
+
+    // Gets every kernel compiled before the first cell is timed
+    private void warmUp() {
+        for (Algorithm algorithm : algorithms) {
+            for (int run = 0; run < WARMUP_RUNS && !cancelled; run++) {
+                algorithm.sort(InputGenerator.generate(InputGenerator.Distribution.SHUFFLED, WARMUP_SIZE, run), () -> cancelled);
+            }
+        }
+    }
+}
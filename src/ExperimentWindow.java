@@ -0,0 +1,387 @@
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.*;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.StringConverter;
+
+// A window for running an ExperimentMatrix in the background: pick the algorithms,
+// input distributions, a geometric range of sizes and the repetitions, and watch the
+// median times fill a table and one log-log chart per distribution. Each algorithm's
+// line is labelled with the exponent fitted to its points, e.g. n^1.98 for bubble sort.
+final class ExperimentWindow {
+    private static final Integer[] DECADES = {10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, ExperimentMatrix.MAX_SIZE};
+    private static final Integer[] STEPS_PER_DECADE = {1, 2, 3, 4, 5};
+    private static final int MAX_REPETITIONS = 50;
+    private static final int MAX_TIME_LIMIT_SECONDS = 3600;
+
+    // One table row: every repetition of an algorithm on one distribution and size
+    record Row(ExperimentMatrix.Algorithm algorithm, InputGenerator.Distribution distribution, int size,
+               int repetitions, double medianMillis, double minMillis, double maxMillis, boolean sorted) {
+        double nanosPerElement() {
+            return medianMillis * 1e6 / size;
+        }
+    }
+
+    private record Key(ExperimentMatrix.Algorithm algorithm, InputGenerator.Distribution distribution, int size) {
+    }
+
+    private final Stage stage = new Stage();
+    private final Map<ExperimentMatrix.Algorithm, CheckBox> algorithmBoxes = new EnumMap<>(ExperimentMatrix.Algorithm.class);
+    private final Map<InputGenerator.Distribution, CheckBox> distributionBoxes = new EnumMap<>(InputGenerator.Distribution.class);
+    private final ComboBox<Integer> fromComboBox = new ComboBox<>();
+    private final ComboBox<Integer> toComboBox = new ComboBox<>();
+    private final ComboBox<Integer> stepsComboBox = new ComboBox<>();
+    private final Spinner<Integer> repetitionsSpinner = new Spinner<>(1, MAX_REPETITIONS, 3);
+    private final Spinner<Integer> timeLimitSpinner = new Spinner<>(1, MAX_TIME_LIMIT_SECONDS, 10);
+    private final CheckBox serialCheckBox = new CheckBox("Serial");
+    private final Button runButton = new Button("Run");
+    private final Button stopButton = new Button("Stop");
+    private final ProgressBar progressBar = new ProgressBar(0);
+    private final Label statusLabel = new Label("Ready");
+    private final ObservableList<Row> rows = FXCollections.observableArrayList();
+    private final TableView<Row> table = new TableView<>();
+    private final TabPane tabs = new TabPane();
+
+    // Written on the FX thread only
+    private final Map<Key, List<Long>> samples = new HashMap<>();
+    private final Map<Key, Boolean> sorted = new HashMap<>();
+    private final Map<Key, Integer> rowIndex = new HashMap<>();
+    private final Map<InputGenerator.Distribution, LineChart<Number, Number>> charts = new EnumMap<>(InputGenerator.Distribution.class);
+    private final Map<InputGenerator.Distribution, Map<ExperimentMatrix.Algorithm, XYChart.Series<Number, Number>>> lines =
+            new EnumMap<>(InputGenerator.Distribution.class);
+    private ExperimentMatrix matrix;
+    private int done;
+    private int skipped;
+    private long seed;
+
+    ExperimentWindow(Window owner) {
+        stage.initOwner(owner);
+        stage.setTitle("Experiment Matrix");
+
+        FlowPane algorithmPane = new FlowPane(10, 5);
+        for (ExperimentMatrix.Algorithm algorithm : ExperimentMatrix.Algorithm.values()) {
+            CheckBox box = new CheckBox(algorithm.toString());
+            box.setSelected(algorithm == ExperimentMatrix.Algorithm.INSERTION || algorithm == ExperimentMatrix.Algorithm.MERGE
+                    || algorithm == ExperimentMatrix.Algorithm.QUICK || algorithm == ExperimentMatrix.Algorithm.HEAP);
+            algorithmBoxes.put(algorithm, box);
+            algorithmPane.getChildren().add(box);
+        }
+        FlowPane distributionPane = new FlowPane(10, 5);
+        for (InputGenerator.Distribution distribution : InputGenerator.Distribution.values()) {
+            CheckBox box = new CheckBox(distribution.toString());
+            box.setSelected(distribution == InputGenerator.Distribution.SHUFFLED);
+            distributionBoxes.put(distribution, box);
+            distributionPane.getChildren().add(box);
+        }
+
+        fromComboBox.getItems().addAll(DECADES);
+        fromComboBox.setValue(1_000);
+        toComboBox.getItems().addAll(DECADES);
+        toComboBox.setValue(1_000_000);
+        StringConverter<Integer> sizeConverter = new StringConverter<>() {
+            @Override
+            public String toString(Integer size) {
+                return size == null ? "" : String.format("%,d", size);
+            }
+
+            @Override
+            public Integer fromString(String text) {
+                return Integer.valueOf(text.replace(",", ""));
+            }
+        };
+        fromComboBox.setConverter(sizeConverter);
+        toComboBox.setConverter(sizeConverter);
+        stepsComboBox.getItems().addAll(STEPS_PER_DECADE);
+        stepsComboBox.setValue(2);
+        repetitionsSpinner.setPrefWidth(70);
+        timeLimitSpinner.setPrefWidth(80);
+        serialCheckBox.setTooltip(new Tooltip("One experiment at a time, for timings free of other cores' memory traffic"));
+        runButton.setOnAction(e -> run());
+        stopButton.setOnAction(e -> stop());
+        stopButton.setDisable(true);
+
+        HBox sizeBox = new HBox(10, new Label("Sizes from"), fromComboBox, new Label("to"), toComboBox,
+                new Label("Steps per decade:"), stepsComboBox, new Label("Repetitions:"), repetitionsSpinner,
+                new Label("Time limit (s):"), timeLimitSpinner, serialCheckBox, runButton, stopButton);
+        sizeBox.setAlignment(Pos.CENTER_LEFT);
+        progressBar.setPrefWidth(300);
+        HBox statusBox = new HBox(10, progressBar, statusLabel);
+        statusBox.setAlignment(Pos.CENTER_LEFT);
+        VBox controls = new VBox(10, new Label("Algorithms:"), algorithmPane, new Label("Inputs:"), distributionPane,
+                sizeBox, statusBox);
+        controls.setPadding(new Insets(10));
+
+        // Rows are updated in place in rows; the table shows a sorted view of them
+        SortedList<Row> sortedRows = new SortedList<>(rows);
+        sortedRows.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sortedRows);
+        table.getColumns().add(column("Algorithm", row -> row.algorithm().toString()));
+        table.getColumns().add(column("Input", row -> row.distribution().toString()));
+        table.getColumns().add(numberColumn("n", row -> (double) row.size(), "%,.0f"));
+        table.getColumns().add(numberColumn("Runs", row -> (double) row.repetitions(), "%.0f"));
+        table.getColumns().add(numberColumn("Median ms", Row::medianMillis, "%.3f"));
+        table.getColumns().add(numberColumn("Min ms", Row::minMillis, "%.3f"));
+        table.getColumns().add(numberColumn("Max ms", Row::maxMillis, "%.3f"));
+        table.getColumns().add(numberColumn("ns / element", Row::nanosPerElement, "%.2f"));
+        table.getColumns().add(column("Sorted", row -> row.sorted() ? "yes" : "NO"));
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        tabs.getTabs().add(new Tab("Table", table));
+
+        BorderPane root = new BorderPane(tabs);
+        root.setTop(controls);
+        stage.setScene(new Scene(root, 1100, 750));
+        // Closing the window stops the experiments, much like Stop
+        stage.setOnHidden(e -> stop());
+    }
+
+    private static TableColumn<Row, String> column(String title, Function<Row, String> value) {
+        TableColumn<Row, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(value.apply(data.getValue())));
+        return column;
+    }
+
+    // Kept as numbers, so that sorting on the column is numeric
+    private static TableColumn<Row, Double> numberColumn(String title, Function<Row, Double> value, String format) {
+        TableColumn<Row, Double> column = new TableColumn<>(title);
+        column.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(value.apply(data.getValue())));
+        column.setCellFactory(c -> new TableCell<>() {
+            @Override
+            protected void updateItem(Double item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : String.format(format, item));
+            }
+        });
+        return column;
+    }
+
+    // seed is the visualizer's, so the inputs follow the seed shown there
+    void show(long seed) {
+        this.seed = seed;
+        stage.show();
+        stage.toFront();
+    }
+
+    private void run() {
+        List<ExperimentMatrix.Algorithm> algorithms = new ArrayList<>();
+        algorithmBoxes.forEach((algorithm, box) -> {
+            if (box.isSelected()) algorithms.add(algorithm);
+        });
+        List<InputGenerator.Distribution> distributions = new ArrayList<>();
+        distributionBoxes.forEach((distribution, box) -> {
+            if (box.isSelected()) distributions.add(distribution);
+        });
+        int from = fromComboBox.getValue();
+        int to = toComboBox.getValue();
+        if (algorithms.isEmpty() || distributions.isEmpty()) {
+            statusLabel.setText("Pick at least one algorithm and one input");
+            return;
+        }
+        if (from > to) {
+            statusLabel.setText("The smallest size is above the largest");
+            return;
+        }
+        int[] sizes = ExperimentMatrix.geometricSizes(from, to, stepsComboBox.getValue());
+        int parallelism = serialCheckBox.isSelected() ? 1 : Runtime.getRuntime().availableProcessors();
+        ExperimentMatrix experiments = new ExperimentMatrix(algorithms, distributions, sizes,
+                repetitionsSpinner.getValue(), seed, parallelism, timeLimitSpinner.getValue() * 1_000_000_000L);
+        matrix = experiments;
+        clearResults(distributions);
+        done = 0;
+        skipped = 0;
+        progressBar.setProgress(0);
+        statusLabel.setText(String.format("Warming up, then %,d experiments on %d %s", experiments.cells(),
+                parallelism, parallelism == 1 ? "thread" : "threads"));
+        setRunning(true);
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                experiments.run(new ExperimentMatrix.Listener() {
+                    @Override
+                    public void measured(ExperimentMatrix.Measurement measurement) {
+                        Platform.runLater(() -> {
+                            if (matrix == experiments) add(measurement);
+                        });
+                    }
+
+                    @Override
+                    public void skipped(ExperimentMatrix.Cell cell, String reason) {
+                        Platform.runLater(() -> {
+                            if (matrix == experiments) skip(cell, reason);
+                        });
+                    }
+                });
+                Platform.runLater(() -> finish(experiments, null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Platform.runLater(() -> finish(experiments, "Interrupted"));
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> finish(experiments, "Failed: " + (e.getCause() != null ? e.getCause() : e)));
+            }
+        });
+    }
+
+    private void stop() {
+        if (matrix != null) {
+            matrix.cancel();
+            statusLabel.setText("Stopping once the running sorts finish");
+            stopButton.setDisable(true);
+        }
+    }
+
+    private void finish(ExperimentMatrix experiments, String failure) {
+        if (matrix != experiments) return;
+        matrix = null;
+        setRunning(false);
+        statusLabel.setText(failure != null ? failure
+                : String.format("Done: %,d measured, %,d skipped", done - skipped, skipped));
+    }
+
+    private void setRunning(boolean running) {
+        runButton.setDisable(running);
+        stopButton.setDisable(!running);
+        serialCheckBox.setDisable(running);
+    }
+
+    private void clearResults(List<InputGenerator.Distribution> distributions) {
+        samples.clear();
+        sorted.clear();
+        rowIndex.clear();
+        rows.clear();
+        charts.clear();
+        lines.clear();
+        tabs.getTabs().remove(1, tabs.getTabs().size());
+        for (InputGenerator.Distribution distribution : distributions) {
+            LineChart<Number, Number> chart = new LineChart<>(logAxis("n", false), logAxis("Median time (ms)", true));
+            chart.setTitle(distribution + " input, log-log");
+            chart.setAnimated(false);
+            charts.put(distribution, chart);
+            lines.put(distribution, new EnumMap<>(ExperimentMatrix.Algorithm.class));
+            tabs.getTabs().add(new Tab(distribution.toString(), chart));
+        }
+    }
+
+    // JavaFX has no log axis, so points are plotted as log10 values on a linear axis
+    // with ticks on whole decades, labelled with the value they stand for
+    private static NumberAxis logAxis(String label, boolean millis) {
+        NumberAxis axis = new NumberAxis();
+        axis.setLabel(label);
+        axis.setAutoRanging(false);
+        axis.setTickUnit(1);
+        axis.setMinorTickCount(0);
+        axis.setTickLabelFormatter(new StringConverter<>() {
+            @Override
+            public String toString(Number exponent) {
+                int decade = (int) Math.round(exponent.doubleValue());
+                if (decade >= 0 || !millis) return String.format("%,.0f", Math.pow(10, decade));
+                return String.format("%." + -decade + "f", Math.pow(10, decade));
+            }
+
+            @Override
+            public Number fromString(String text) {
+                return Math.log10(Double.parseDouble(text.replace(",", "")));
+            }
+        });
+        return axis;
+    }
+
+    private void add(ExperimentMatrix.Measurement measurement) {
+        ExperimentMatrix.Cell cell = measurement.cell();
+        Key key = new Key(cell.algorithm(), cell.distribution(), cell.size());
+        List<Long> times = samples.computeIfAbsent(key, k -> new ArrayList<>());
+        times.add(measurement.nanos());
+        sorted.merge(key, measurement.sorted(), Boolean::logicalAnd);
+
+        long[] sortedTimes = times.stream().mapToLong(Long::longValue).sorted().toArray();
+        Row row = new Row(cell.algorithm(), cell.distribution(), cell.size(), sortedTimes.length,
+                sortedTimes[sortedTimes.length / 2] / 1e6, sortedTimes[0] / 1e6,
+                sortedTimes[sortedTimes.length - 1] / 1e6, sorted.get(key));
+        Integer index = rowIndex.get(key);
+        if (index == null) {
+            rowIndex.put(key, rows.size());
+            rows.add(row);
+        } else {
+            rows.set(index, row);
+        }
+        updateLine(cell.algorithm(), cell.distribution());
+        progress();
+    }
+
+    private void skip(ExperimentMatrix.Cell cell, String reason) {
+        skipped++;
+        progress();
+        statusLabel.setText(String.format("Skipped %s, %s, n = %,d: %s", cell.algorithm(), cell.distribution(),
+                cell.size(), reason));
+    }
+
+    private void progress() {
+        done++;
+        if (matrix != null) {
+            progressBar.setProgress((double) done / matrix.cells());
+        }
+    }
+
+    // Redraws one algorithm's line from the median of each size, with its fitted exponent
+    private void updateLine(ExperimentMatrix.Algorithm algorithm, InputGenerator.Distribution distribution) {
+        TreeMap<Integer, Long> medians = new TreeMap<>();
+        samples.forEach((key, times) -> {
+            if (key.algorithm() == algorithm && key.distribution() == distribution) {
+                long[] sortedTimes = times.stream().mapToLong(Long::longValue).sorted().toArray();
+                medians.put(key.size(), Math.max(1, sortedTimes[sortedTimes.length / 2]));
+            }
+        });
+
+        XYChart.Series<Number, Number> line = lines.get(distribution).computeIfAbsent(algorithm, a -> {
+            XYChart.Series<Number, Number> series = new XYChart.Series<>();
+            charts.get(distribution).getData().add(series);
+            return series;
+        });
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>();
+        medians.forEach((size, nanos) -> points.add(new XYChart.Data<>(Math.log10(size), Math.log10(nanos / 1e6))));
+        line.getData().setAll(points);
+        double exponent = ExperimentMatrix.fitExponent(medians);
+        line.setName(Double.isNaN(exponent) ? algorithm.toString() : String.format("%s  n^%.2f", algorithm, exponent));
+        rescale(charts.get(distribution));
+    }
+
+    // Fits both axes to whole decades around the points
+    private static void rescale(LineChart<Number, Number> chart) {
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (XYChart.Series<Number, Number> series : chart.getData()) {
+            for (XYChart.Data<Number, Number> point : series.getData()) {
+                minX = Math.min(minX, point.getXValue().doubleValue());
+                maxX = Math.max(maxX, point.getXValue().doubleValue());
+                minY = Math.min(minY, point.getYValue().doubleValue());
+                maxY = Math.max(maxY, point.getYValue().doubleValue());
+            }
+        }
+        if (minX > maxX) return;
+        NumberAxis x = (NumberAxis) chart.getXAxis();
+        NumberAxis y = (NumberAxis) chart.getYAxis();
+        x.setLowerBound(Math.floor(minX));
+        x.setUpperBound(Math.max(Math.floor(minX) + 1, Math.ceil(maxX)));
+        y.setLowerBound(Math.floor(minY));
+        y.setUpperBound(Math.max(Math.floor(minY) + 1, Math.ceil(maxY)));
+    }
+}
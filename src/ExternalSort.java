@@ -0,0 +1,335 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// External merge sort for files of big-endian 32-bit ints that do not fit in the heap.
+// The input is mapped window by window and each window is sorted in memory and
+// spilled as a run; runs are then merged fanIn at a time through a loser tree,
+// ping-ponging between two temporary files until a single run is left.
+final class ExternalSort {
+    enum Stage { RUN_FORMATION, MERGE, DONE }
+
+    interface Listener {
+        void progress(ExternalSort sorter) throws InterruptedException;
+    }
+
+    static final int DEFAULT_BLOCK_BYTES = 1 << 20;
+    private static final int MAX_RUN_LENGTH = Integer.MAX_VALUE / Integer.BYTES;
+    private static final int MERGE_REPORT_BLOCKS = 64;
+
+    private final int runLength;
+    private final int blockBytes;
+    private final int fanIn;
+    private final Listener listener;
+
+    private final int[] preview;
+    private long[] previewPositions = new long[0];
+    private long[] runStarts = new long[0];
+    private long elements;
+
+    private volatile Stage stage = Stage.RUN_FORMATION;
+    private volatile int pass;
+    private volatile int runCount;
+    private volatile long blocksRead;
+    private volatile long blocksWritten;
+    private volatile long bytesRead;
+    private volatile long bytesWritten;
+    private long startNanos;
+    private volatile long elapsedNanos;
+
+    ExternalSort(int runLength, int blockBytes, int fanIn, int previewSize, Listener listener) {
+        if (runLength < 1 || blockBytes < Integer.BYTES || fanIn < 2) {
+            throw new IllegalArgumentException("Invalid external sort configuration");
+        }
+        this.runLength = Math.min(runLength, MAX_RUN_LENGTH);
+        this.blockBytes = blockBytes - blockBytes % Integer.BYTES;
+        this.fanIn = fanIn;
+        this.preview = new int[previewSize];
+        this.listener = listener;
+    }
+
+    // Sizes runs to a quarter of the heap and gives each merge input one block of the rest
+    static ExternalSort forHeap(int previewSize, Listener listener) {
+        long heap = Runtime.getRuntime().maxMemory();
+        int runLength = (int) Math.min(MAX_RUN_LENGTH, heap / 4 / Integer.BYTES);
+        int fanIn = (int) Math.max(2, Math.min(1024, heap / 4 / DEFAULT_BLOCK_BYTES));
+        return new ExternalSort(runLength, DEFAULT_BLOCK_BYTES, fanIn, previewSize, listener);
+    }
+
+    // Values sampled at evenly spaced positions of the data as it is currently laid out
+    int[] preview() {
+        return preview;
+    }
+
+    // Start of every current run, scaled to preview positions
+    int[] runBoundaries() {
+        long[] starts = runStarts;
+        int[] scaled = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            scaled[i] = elements == 0 ? 0 : (int) (starts[i] * preview.length / elements);
+        }
+        return scaled;
+    }
+
+    Stage stage() { return stage; }
+    int pass() { return pass; }
+    int runCount() { return runCount; }
+    long blocksRead() { return blocksRead; }
+    long blocksWritten() { return blocksWritten; }
+    long elapsedNanos() { return elapsedNanos; }
+
+    // Bytes read plus bytes written per second of wall-clock time
+    double throughputBytesPerSecond() {
+        long nanos = elapsedNanos;
+        return nanos == 0 ? 0 : (bytesRead + bytesWritten) * 1e9 / nanos;
+    }
+
+    void sort(Path input, Path output) throws IOException, InterruptedException {
+        startNanos = System.nanoTime();
+        long bytes = Files.size(input);
+        if (bytes % Integer.BYTES != 0) {
+            throw new IOException(String.format("%s is %,d bytes, not a whole number of 4-byte ints",
+                    input.getFileName(), bytes));
+        }
+        Path directory = output.toAbsolutePath().getParent();
+        Path first = Files.createTempFile(directory, "algovis-runs", ".bin");
+        Path second = Files.createTempFile(directory, "algovis-runs", ".bin");
+        try {
+            elements = bytes / Integer.BYTES;
+            previewPositions = new long[preview.length];
+            for (int i = 0; i < preview.length; i++) {
+                previewPositions[i] = elements * i / Math.max(1, preview.length);
+            }
+
+            long[] runs = formRuns(input, elements <= runLength ? output : first);
+            Path source = first;
+            Path target = second;
+            stage = Stage.MERGE;
+            while (runs.length > 2) {
+                pass++;
+                boolean last = runs.length - 1 <= fanIn;
+                runs = mergePass(source, last ? output : target, runs);
+                Path swap = source;
+                source = target;
+                target = swap;
+            }
+            stage = Stage.DONE;
+            report();
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(second);
+        }
+    }
+
+    // Returns run start offsets followed by the total element count
+    private long[] formRuns(Path input, Path target) throws IOException, InterruptedException {
+        int runs = (int) ((elements + runLength - 1) / runLength);
+        long[] starts = new long[runs + 1];
+        int[] run = new int[(int) Math.min(runLength, elements)];
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             BlockWriter out = new BlockWriter(target)) {
+            for (int r = 0; r < runs; r++) {
+                long offset = (long) r * runLength;
+                int length = (int) Math.min(runLength, elements - offset);
+                MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY,
+                        offset * Integer.BYTES, (long) length * Integer.BYTES);
+                window.order(ByteOrder.BIG_ENDIAN).asIntBuffer().get(run, 0, length);
+                countRead((long) length * Integer.BYTES);
+
+                Arrays.parallelSort(run, 0, length);
+                for (int i = 0; i < length; i++) {
+                    out.write(run[i]);
+                }
+
+                starts[r] = offset;
+                starts[r + 1] = offset + length;
+                runStarts = Arrays.copyOf(starts, r + 1);
+                runCount = r + 1;
+                report();
+            }
+        }
+        starts[runs] = elements;
+        return starts;
+    }
+
+    private long[] mergePass(Path source, Path target, long[] runs) throws IOException, InterruptedException {
+        int inputRuns = runs.length - 1;
+        int outputRuns = (inputRuns + fanIn - 1) / fanIn;
+        long[] merged = new long[outputRuns + 1];
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             BlockWriter out = new BlockWriter(target)) {
+            for (int group = 0; group < outputRuns; group++) {
+                int from = group * fanIn;
+                int to = Math.min(inputRuns, from + fanIn);
+                merged[group] = runs[from];
+
+                RunReader[] readers = new RunReader[to - from];
+                long[] heads = new long[readers.length];
+                for (int i = 0; i < readers.length; i++) {
+                    readers[i] = new RunReader(in, runs[from + i], runs[from + i + 1]);
+                    heads[i] = readers[i].next();
+                }
+
+                LoserTree tree = new LoserTree(heads);
+                long nextReport = blocksWritten + MERGE_REPORT_BLOCKS;
+                for (int winner = tree.winner(); heads[winner] != RunReader.EXHAUSTED; winner = tree.winner()) {
+                    out.write((int) heads[winner]);
+                    heads[winner] = readers[winner].next();
+                    tree.replay(winner);
+                    if (blocksWritten >= nextReport) {
+                        nextReport = blocksWritten + MERGE_REPORT_BLOCKS;
+                        report();
+                    }
+                }
+
+                runStarts = mergedStarts(merged, group, runs, to);
+                runCount = runStarts.length;
+                report();
+            }
+        }
+        merged[outputRuns] = elements;
+        return merged;
+    }
+
+    // Runs already merged in this pass followed by the input runs still waiting
+    private static long[] mergedStarts(long[] merged, int group, long[] runs, int nextRun) {
+        long[] starts = Arrays.copyOf(merged, group + 1 + (runs.length - 1 - nextRun));
+        System.arraycopy(runs, nextRun, starts, group + 1, runs.length - 1 - nextRun);
+        return starts;
+    }
+
+    private void report() throws InterruptedException {
+        elapsedNanos = System.nanoTime() - startNanos;
+        if (listener != null) {
+            listener.progress(this);
+        }
+    }
+
+    private void countRead(long bytes) {
+        bytesRead += bytes;
+        blocksRead += (bytes + blockBytes - 1) / blockBytes;
+    }
+
+    // Buffered sequential reader over one run of the source file
+    private final class RunReader {
+        static final long EXHAUSTED = Long.MAX_VALUE;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(blockBytes).order(ByteOrder.BIG_ENDIAN);
+        private long position;
+        private final long end;
+
+        RunReader(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start * Integer.BYTES;
+            this.end = end * Integer.BYTES;
+            buffer.limit(0);
+        }
+
+        long next() throws IOException {
+            if (!buffer.hasRemaining()) {
+                if (position >= end) return EXHAUSTED;
+                buffer.clear();
+                buffer.limit((int) Math.min(blockBytes, end - position));
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer, position);
+                    if (read < 0) throw new IOException("Unexpected end of run file");
+                    position += read;
+                }
+                buffer.flip();
+                countRead(buffer.remaining());
+            }
+            return buffer.getInt();
+        }
+    }
+
+    // Buffered sequential writer that also samples values for the preview
+    private final class BlockWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(blockBytes).order(ByteOrder.BIG_ENDIAN);
+        private long index;
+        private int nextPreview;
+
+        BlockWriter(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void write(int value) throws IOException {
+            while (nextPreview < previewPositions.length && previewPositions[nextPreview] == index) {
+                preview[nextPreview++] = value;
+            }
+            index++;
+            buffer.putInt(value);
+            if (!buffer.hasRemaining()) flush();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            bytesWritten += buffer.remaining();
+            blocksWritten++;
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (buffer.position() > 0) flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // Tournament tree of losers: tree[0] holds the index of the smallest head and
+    // every inner node the loser of the match played there, so replacing the
+    // winner only replays the log2(k) matches on its path to the root.
+    private static final class LoserTree {
+        private final long[] keys;
+        private final int[] tree;
+
+        LoserTree(long[] keys) {
+            this.keys = keys;
+            this.tree = new int[keys.length];
+            Arrays.fill(tree, -1);
+            for (int i = keys.length - 1; i >= 0; i--) {
+                replay(i);
+            }
+        }
+
+        int winner() {
+            return tree[0];
+        }
+
+        void replay(int source) {
+            int k = keys.length;
+            for (int node = (source + k) >> 1; node > 0; node >>= 1) {
+                if (tree[node] == -1) {
+                    tree[node] = source;
+                    return;
+                }
+                if (beats(tree[node], source)) {
+                    int loser = source;
+                    source = tree[node];
+                    tree[node] = loser;
+                }
+            }
+            tree[0] = source;
+        }
+
+        private boolean beats(int a, int b) {
+            return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javafx.scene.paint.Color;
+
+// Bounded single-producer/single-consumer hand-off of frames from the algorithm
+// thread to the FX thread, which takes at most one frame per pulse. Slots are
+// preallocated and reused, so memory stays flat however far the algorithm runs
+// ahead of the screen; what happens when the ring is full depends on the policy.
+// Frames only carry highlights and overlays: the bars are read from the live array
+// when the frame is drawn.
+final class FrameChannel {
+    enum Policy {
+        DROP("Drop when full"),
+        BLOCK("Block algorithm"),
+        COALESCE("Latest only");
+
+        private final String label;
+
+        Policy(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    static final class Frame {
+        long sequence;
+        int highlight1;
+        int highlight2;
+        Color color;
+        int bufferFrom;
+        int bufferTo;
+        int[] splitters;
+        int[] buckets;
+
+        private void set(long sequence, int highlight1, int highlight2, Color color,
+                         int bufferFrom, int bufferTo, int[] splitters, int[] buckets) {
+            this.sequence = sequence;
+            this.highlight1 = highlight1;
+            this.highlight2 = highlight2;
+            this.color = color;
+            this.bufferFrom = bufferFrom;
+            this.bufferTo = bufferTo;
+            this.splitters = splitters;
+            this.buckets = buckets;
+        }
+
+        private void copyFrom(Frame other) {
+            set(other.sequence, other.highlight1, other.highlight2, other.color,
+                other.bufferFrom, other.bufferTo, other.splitters, other.buckets);
+        }
+    }
+
+    interface Renderer {
+        void render(Frame frame);
+    }
+
+    private static final long BLOCK_PARK_NANOS = 100_000;
+    // A blocked producer gives up and drops once the FX thread has not taken a
+    // frame for this long, so a minimized or stalled window cannot hang a run
+    private static final long STALL_NANOS = 1_000_000_000L;
+
+    private final Frame[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile Policy policy = Policy.DROP;
+    private volatile long lastDrained = System.nanoTime();
+    private volatile long skipped;
+
+    // Producer side only
+    private long sequence;
+
+    // Newest frame that did not go through the ring: every frame under COALESCE,
+    // and the overflow under DROP so the final state is never lost
+    private final Frame latest = new Frame();
+
+    // Consumer side only
+    private final Frame current = new Frame();
+    private long renderedSequence;
+
+    // Capacity is rounded up to a power of two
+    FrameChannel(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        slots = new Frame[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Frame();
+        }
+        mask = size - 1;
+    }
+
+    Policy policy() {
+        return policy;
+    }
+
+    void setPolicy(Policy policy) {
+        this.policy = policy;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    // Frames that were published but never drawn
+    long skipped() {
+        return skipped;
+    }
+
+    void publish(int highlight1, int highlight2, Color color,
+                 int bufferFrom, int bufferTo, int[] splitters, int[] buckets) {
+        long frameSequence = ++sequence;
+        Policy current = policy;
+        if (current != Policy.COALESCE) {
+            long t = tail.get();
+            if (current == Policy.BLOCK) {
+                while (t - head.get() >= slots.length && System.nanoTime() - lastDrained < STALL_NANOS) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+            }
+            if (t - head.get() < slots.length) {
+                slots[(int) t & mask].set(frameSequence, highlight1, highlight2, color,
+                                          bufferFrom, bufferTo, splitters, buckets);
+                tail.set(t + 1);
+                return;
+            }
+        }
+        synchronized (latest) {
+            latest.set(frameSequence, highlight1, highlight2, color, bufferFrom, bufferTo, splitters, buckets);
+        }
+    }
+
+    // Called on the FX thread once per pulse; draws the oldest queued frame, or else
+    // the newest frame that bypassed the ring, if it has not been drawn yet. A frame
+    // only bypasses the ring when it is full, so every frame queued before it is
+    // stale and skipped: the screen jumps to the live state instead of trailing it
+    boolean drain(Renderer renderer) {
+        lastDrained = System.nanoTime();
+        long overflow;
+        synchronized (latest) {
+            overflow = latest.sequence;
+        }
+        boolean found = false;
+        for (long h = head.get(); h < tail.get() && !found; h++) {
+            Frame slot = slots[(int) h & mask];
+            if (slot.sequence > renderedSequence && slot.sequence > overflow) {
+                current.copyFrom(slot);
+                found = true;
+            }
+            head.set(h + 1);
+        }
+        if (!found) {
+            synchronized (latest) {
+                if (latest.sequence <= renderedSequence) return false;
+                current.copyFrom(latest);
+            }
+        }
+        skipped += current.sequence - renderedSequence - 1;
+        renderedSequence = current.sequence;
+        renderer.render(current);
+        return true;
+    }
+
+    // Called on the FX thread when it draws directly; everything queued is stale
+    void clear() {
+        long newest = renderedSequence;
+        long t = tail.get();
+        if (t > head.get()) {
+            newest = Math.max(newest, slots[(int) (t - 1) & mask].sequence);
+        }
+        head.set(t);
+        synchronized (latest) {
+            newest = Math.max(newest, latest.sequence);
+        }
+        skipped += newest - renderedSequence;
+        renderedSequence = newest;
+    }
+}
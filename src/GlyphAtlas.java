@@ -0,0 +1,82 @@
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+// Digits and a minus sign rendered once into a WritableImage, one fixed-width cell
+// each, so numeric labels are drawn by copying cells with drawImage instead of
+// laying out text every frame. Must be created on the FX thread.
+final class GlyphAtlas {
+    private static final String GLYPHS = "0123456789-";
+    private static final int MINUS = 10;
+    private static final int MAX_DIGITS = 11;
+
+    private final WritableImage image;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int[] cells = new int[MAX_DIGITS];
+
+    GlyphAtlas(Font font, Color color) {
+        double width = 0;
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            Text text = new Text(GLYPHS.substring(i, i + 1));
+            text.setFont(font);
+            width = Math.max(width, text.getLayoutBounds().getWidth());
+        }
+        Text sample = new Text(GLYPHS);
+        sample.setFont(font);
+        cellWidth = Math.ceil(width);
+        cellHeight = Math.ceil(sample.getLayoutBounds().getHeight());
+
+        Canvas canvas = new Canvas(cellWidth * GLYPHS.length(), cellHeight);
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.setFont(font);
+        g.setFill(color);
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.TOP);
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            g.fillText(GLYPHS.substring(i, i + 1), (i + 0.5) * cellWidth, 0);
+        }
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        image = canvas.snapshot(parameters, new WritableImage((int) canvas.getWidth(), (int) cellHeight));
+    }
+
+    double height() {
+        return cellHeight;
+    }
+
+    double width(int value) {
+        return glyphCount(value) * cellWidth;
+    }
+
+    // Draws value centered on centerX with its top edge at y
+    void draw(GraphicsContext g, int value, double centerX, double y) {
+        int count = 0;
+        long remaining = Math.abs((long) value);
+        do {
+            cells[count++] = (int) (remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (value < 0) {
+            cells[count++] = MINUS;
+        }
+        double x = centerX - count * cellWidth / 2;
+        for (int i = count - 1; i >= 0; i--, x += cellWidth) {
+            g.drawImage(image, cells[i] * cellWidth, 0, cellWidth, cellHeight, x, y, cellWidth, cellHeight);
+        }
+    }
+
+    private static int glyphCount(int value) {
+        int count = value < 0 ? 2 : 1;
+        for (long remaining = Math.abs((long) value) / 10; remaining > 0; remaining /= 10) {
+            count++;
+        }
+        return count;
+    }
+}
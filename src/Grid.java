@@ -0,0 +1,89 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// A width x height grid of cells, indexed row by row as y * width + x. Walls are one
+// bit per cell and every open cell has a cost of 1 to maxWeight for stepping onto it,
+// so a 4096 x 4096 grid takes 2 MB of walls and 16 MB of weights.
+final class Grid {
+    private static final int CORNER_CLEARING = 3;
+
+    private final int width;
+    private final int height;
+    private final int maxWeight;
+    private final long[] walls;
+    private final byte[] weights;
+
+    Grid(int width, int height, int maxWeight) {
+        if ((long) width * height > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Grid of " + width + " x " + height + " cells is too large");
+        }
+        if (maxWeight < 1 || maxWeight > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Weights must lie in [1, " + Byte.MAX_VALUE + "]");
+        }
+        this.width = width;
+        this.height = height;
+        this.maxWeight = maxWeight;
+        walls = new long[(width * height + 63) >>> 6];
+        weights = new byte[width * height];
+        Arrays.fill(weights, (byte) 1);
+    }
+
+    // Random walls at the given density and uniform weights in [1, maxWeight], with a
+    // small square at each of the two opposite corners kept open around the usual
+    // start and goal so that neither is walled in on its own
+    static Grid random(int width, int height, double wallDensity, int maxWeight, long seed) {
+        Grid grid = new Grid(width, height, maxWeight);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int cell = 0; cell < width * height; cell++) {
+            if (random.nextDouble() < wallDensity) {
+                grid.setWall(cell, true);
+            }
+            grid.weights[cell] = (byte) (1 + random.nextInt(maxWeight));
+        }
+        for (int y = 0; y < Math.min(CORNER_CLEARING, height); y++) {
+            for (int x = 0; x < Math.min(CORNER_CLEARING, width); x++) {
+                grid.setWall(y * width + x, false);
+                grid.setWall((height - 1 - y) * width + width - 1 - x, false);
+            }
+        }
+        return grid;
+    }
+
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+
+    int cells() {
+        return width * height;
+    }
+
+    int maxWeight() {
+        return maxWeight;
+    }
+
+    boolean isWall(int cell) {
+        return (walls[cell >>> 6] & 1L << cell) != 0;
+    }
+
+    void setWall(int cell, boolean wall) {
+        if (wall) {
+            walls[cell >>> 6] |= 1L << cell;
+        } else {
+            walls[cell >>> 6] &= ~(1L << cell);
+        }
+    }
+
+    int weight(int cell) {
+        return weights[cell];
+    }
+
+    // Manhattan distance, the A* heuristic: admissible and consistent with 4-way moves
+    // because no step costs less than 1
+    int distance(int from, int to) {
+        return Math.abs(from % width - to % width) + Math.abs(from / width - to / width);
+    }
+}
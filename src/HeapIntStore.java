@@ -0,0 +1,27 @@
+// IntStore over an ordinary int[]
+final class HeapIntStore implements IntStore {
+    private final int[] array;
+
+    HeapIntStore(int[] array) {
+        this.array = array;
+    }
+
+    int[] array() {
+        return array;
+    }
+
+    @Override
+    public long length() {
+        return array.length;
+    }
+
+    @Override
+    public int get(long index) {
+        return array[(int) index];
+    }
+
+    @Override
+    public void set(long index, int value) {
+        array[(int) index] = value;
+    }
+}
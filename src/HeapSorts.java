@@ -0,0 +1,170 @@
+// Heap sort variants on int[], uninstrumented apart from counting their comparisons,
+// which each returns. recursive is AlgorithmVisualizer.heapSort as written: two
+// comparisons and a swap per level, one call per level. iterative moves a hole down
+// instead of swapping. bottomUp is Floyd's: the hole goes all the way to a leaf at one
+// comparison per level, then the displaced element climbs back the few levels it
+// needs, close to n log n comparisons in all instead of 2 n log n. dAry uses a heap
+// with d children per node: the tree is log2(d) times shallower, and the d children
+// sit side by side in the array, so each level touches one or two cache lines (Java
+// gives no control over array alignment) at the price of d comparisons.
+final class HeapSorts {
+    private HeapSorts() {
+    }
+
+    static long recursive(int[] a) {
+        long comparisons = 0;
+        int n = a.length;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            comparisons += heapify(a, n, i);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            SortKernels.swap(a, 0, end);
+            comparisons += heapify(a, end, 0);
+        }
+        return comparisons;
+    }
+
+    private static long heapify(int[] a, int n, int i) {
+        int largest = i;
+        int left = 2 * i + 1;
+        int right = 2 * i + 2;
+        long comparisons = 0;
+        if (left < n) {
+            comparisons++;
+            if (a[left] > a[largest]) largest = left;
+        }
+        if (right < n) {
+            comparisons++;
+            if (a[right] > a[largest]) largest = right;
+        }
+        if (largest != i) {
+            SortKernels.swap(a, i, largest);
+            comparisons += heapify(a, n, largest);
+        }
+        return comparisons;
+    }
+
+    static long iterative(int[] a) {
+        long comparisons = 0;
+        int n = a.length;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            comparisons += siftDown(a, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            SortKernels.swap(a, 0, end);
+            comparisons += siftDown(a, 0, end);
+        }
+        return comparisons;
+    }
+
+    // Each arm stores and moves on by itself rather than picking the larger child into
+    // a variable: a pick compiles to a conditional move, and then the next level's load
+    // waits for it, where a predicted branch starts that cache miss early. Beyond the
+    // caches that makes the difference between matching recursive and taking twice as long.
+    private static long siftDown(int[] a, int i, int n) {
+        int value = a[i];
+        long comparisons = 0;
+        int child;
+        while ((child = 2 * i + 1) < n) {
+            int left = a[child];
+            if (child + 1 < n) {
+                int right = a[child + 1];
+                comparisons += 2;
+                if (right > left) {
+                    if (right <= value) break;
+                    a[i] = right;
+                    i = child + 1;
+                    continue;
+                }
+            } else {
+                comparisons++;
+            }
+            if (left <= value) break;
+            a[i] = left;
+            i = child;
+        }
+        a[i] = value;
+        return comparisons;
+    }
+
+    static long dAry(int[] a, int d) {
+        long comparisons = 0;
+        int n = a.length;
+        for (int i = (n + d - 2) / d - 1; i >= 0; i--) {
+            comparisons += siftDown(a, i, n, d);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            SortKernels.swap(a, 0, end);
+            comparisons += siftDown(a, 0, end, d);
+        }
+        return comparisons;
+    }
+
+    // Children of i are d * i + 1 to d * i + d
+    private static long siftDown(int[] a, int i, int n, int d) {
+        int value = a[i];
+        long comparisons = 0;
+        while (true) {
+            int first = d * i + 1;
+            if (first >= n) break;
+            int largest = first;
+            for (int child = first + 1, last = Math.min(first + d, n); child < last; child++) {
+                comparisons++;
+                if (a[child] > a[largest]) largest = child;
+            }
+            comparisons++;
+            if (a[largest] <= value) break;
+            a[i] = a[largest];
+            i = largest;
+        }
+        a[i] = value;
+        return comparisons;
+    }
+
+    static long bottomUp(int[] a) {
+        long comparisons = 0;
+        int n = a.length;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            comparisons += siftToLeaf(a, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            SortKernels.swap(a, 0, end);
+            comparisons += siftToLeaf(a, 0, end);
+        }
+        return comparisons;
+    }
+
+    // Moves the hole at i down along the larger children to a leaf, then lets the
+    // displaced value climb back to the first ancestor not below it
+    private static long siftToLeaf(int[] a, int i, int n) {
+        int value = a[i];
+        long comparisons = 0;
+        int hole = i;
+        int child;
+        while ((child = 2 * hole + 2) < n) {
+            int left = a[child - 1], right = a[child];
+            comparisons++;
+            // Separate stores per arm, for the reason given at siftDown
+            if (right > left) {
+                a[hole] = right;
+                hole = child;
+            } else {
+                a[hole] = left;
+                hole = child - 1;
+            }
+        }
+        if (child == n) {
+            a[hole] = a[n - 1];
+            hole = n - 1;
+        }
+        while (hole > i) {
+            int parent = (hole - 1) / 2;
+            comparisons++;
+            if (a[parent] >= value) break;
+            a[hole] = a[parent];
+            hole = parent;
+        }
+        a[hole] = value;
+        return comparisons;
+    }
+}
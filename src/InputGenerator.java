@@ -0,0 +1,116 @@
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Seeded input distributions. Large inputs are filled in fixed-size chunks in
+// parallel, each chunk with its own generator split off the seed in chunk order,
+// so the same seed yields the same array whatever the number of cores.
+final class InputGenerator {
+    enum Distribution {
+        SHUFFLED("Shuffled"),
+        UNIFORM("Uniform random"),
+        NEARLY_SORTED("Nearly sorted"),
+        REVERSED("Reversed"),
+        FEW_UNIQUE("Few unique"),
+        SAWTOOTH("Sawtooth"),
+        ORGAN_PIPE("Organ pipe"),
+        GAUSSIAN("Gaussian"),
+        ZIPF("Zipf");
+
+        private final String label;
+
+        Distribution(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int NEARLY_SORTED_SWAP_DIVISOR = 100;
+    private static final int FEW_UNIQUE_VALUES = 8;
+    private static final int SAWTOOTH_TEETH = 8;
+    private static final int SAWTOOTH_MIN_TOOTH = 8;
+
+    private InputGenerator() {
+    }
+
+    // Values lie in [1, n] for every distribution
+    static int[] generate(Distribution distribution, int n, long seed) {
+        int[] a = new int[n];
+        SplittableRandom random = new SplittableRandom(seed);
+        switch (distribution) {
+            case SHUFFLED -> {
+                fill(a, i -> i + 1);
+                Shuffler.shuffle(a, random);
+            }
+            case UNIFORM -> fill(a, random, (i, r) -> 1 + r.nextInt(n));
+            case NEARLY_SORTED -> {
+                fill(a, i -> i + 1);
+                for (int k = Math.max(1, n / NEARLY_SORTED_SWAP_DIVISOR); k > 0 && n > 1; k--) {
+                    swap(a, random.nextInt(n), random.nextInt(n));
+                }
+            }
+            case REVERSED -> fill(a, i -> n - i);
+            case FEW_UNIQUE -> fill(a, random, (i, r) -> clamp((r.nextInt(FEW_UNIQUE_VALUES) + 1L) * n / FEW_UNIQUE_VALUES, n));
+            case SAWTOOTH -> {
+                int tooth = Math.max(SAWTOOTH_MIN_TOOTH, n / SAWTOOTH_TEETH);
+                fill(a, i -> (int) ((long) (i % tooth) * n / tooth) + 1);
+            }
+            case ORGAN_PIPE -> fill(a, i -> 2 * Math.min(i, n - 1 - i) + 1);
+            case GAUSSIAN -> fill(a, random, (i, r) -> clamp(Math.round(n / 2.0 + n / 6.0 * r.nextGaussian()), n));
+            // Log-uniform ranks approximate Zipf with exponent 1: P(k) is about 1 / k
+            case ZIPF -> fill(a, random, (i, r) -> clamp((long) Math.exp(r.nextDouble() * Math.log(n + 1.0)), n));
+        }
+        return a;
+    }
+
+    private interface IndexFunction {
+        int valueAt(int index);
+    }
+
+    private interface RandomFunction {
+        int valueAt(int index, SplittableRandom random);
+    }
+
+    private static void fill(int[] a, IndexFunction function) {
+        IntStream.range(0, chunkCount(a.length)).parallel().forEach(chunk -> {
+            for (int i = chunk * CHUNK_SIZE, end = chunkEnd(chunk, a.length); i < end; i++) {
+                a[i] = function.valueAt(i);
+            }
+        });
+    }
+
+    private static void fill(int[] a, SplittableRandom random, RandomFunction function) {
+        SplittableRandom[] chunkRandoms = new SplittableRandom[chunkCount(a.length)];
+        for (int chunk = 0; chunk < chunkRandoms.length; chunk++) {
+            chunkRandoms[chunk] = random.split();
+        }
+        IntStream.range(0, chunkRandoms.length).parallel().forEach(chunk -> {
+            SplittableRandom chunkRandom = chunkRandoms[chunk];
+            for (int i = chunk * CHUNK_SIZE, end = chunkEnd(chunk, a.length); i < end; i++) {
+                a[i] = function.valueAt(i, chunkRandom);
+            }
+        });
+    }
+
+    private static int chunkCount(int n) {
+        return (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    private static int chunkEnd(int chunk, int n) {
+        return (int) Math.min(n, (long) (chunk + 1) * CHUNK_SIZE);
+    }
+
+    private static int clamp(long value, int n) {
+        return (int) Math.max(1, Math.min(n, value));
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+}
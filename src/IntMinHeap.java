@@ -0,0 +1,97 @@
+import java.util.Arrays;
+
+// Binary min-heap of int ids with a position index, so an id already in the heap has
+// its key lowered in place in O(log n) instead of being queued twice. Keys sit next
+// to their ids in heap order, so sifting reads the heap and not the id space; only
+// the position index is a flat array over every id.
+final class IntMinHeap implements IntPriorityQueue {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private final int[] positions;
+    private int size;
+
+    IntMinHeap(int idCount) {
+        positions = new int[idCount];
+        Arrays.fill(positions, -1);
+    }
+
+    @Override
+    public void offer(int id, int key) {
+        int position = positions[id];
+        if (position < 0) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, 2 * size);
+                keys = Arrays.copyOf(keys, 2 * size);
+            }
+            position = size++;
+        } else if (key >= keys[position]) {
+            return;
+        }
+        siftUp(id, key, position);
+    }
+
+    @Override
+    public int poll() {
+        int top = ids[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            siftDown(ids[size], keys[size], 0);
+        }
+        return top;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[ids[i]] = -1;
+        }
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Moves the hole at position up past larger parents, then drops id into it
+    private void siftUp(int id, int key, int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            move(parent, position);
+            position = parent;
+        }
+        place(id, key, position);
+    }
+
+    private void siftDown(int id, int key, int position) {
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) break;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (keys[child] >= key) break;
+            move(child, position);
+            position = child;
+        }
+        place(id, key, position);
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        keys[to] = keys[from];
+        positions[ids[to]] = to;
+    }
+
+    private void place(int id, int key, int position) {
+        ids[position] = id;
+        keys[position] = key;
+        positions[id] = position;
+    }
+}
@@ -0,0 +1,14 @@
+// Open set of the pathfinder: int ids ordered by int keys, smallest first
+interface IntPriorityQueue {
+    // Queues id under key, or lowers its key if it is already queued. Queues
+    // without decrease-key may queue it again, leaving a stale entry that the
+    // caller skips when it comes out.
+    void offer(int id, int key);
+
+    // Removes and returns an id with the smallest key
+    int poll();
+
+    boolean isEmpty();
+
+    void clear();
+}
@@ -0,0 +1,15 @@
+// Long-indexed access to a sequence of ints, so the same sorting kernels can run
+// over a heap int[] or an off-heap MemorySegment of more than 2^31 elements.
+interface IntStore {
+    long length();
+
+    int get(long index);
+
+    void set(long index, int value);
+
+    default void swap(long i, long j) {
+        int temp = get(i);
+        set(i, get(j));
+        set(j, temp);
+    }
+}
@@ -0,0 +1,242 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Runs the JDK's own sorts and records what can be seen of them as an operation
+// trace. The Object[] sorts (TimSort, and parallelSort's merge of TimSorted chunks)
+// sort Elements through a recording comparator: every call is a compare of the two
+// elements' current slots (-1 while an element only sits in TimSort's merge buffer),
+// and every diffInterval calls the array is diffed against a shadow copy, each changed
+// slot becoming a write. Up to EXACT_SIZE elements the diff runs on every call, so each
+// write is seen right before the comparison that follows it; above that a diff costs
+// too much to run so often, and it runs about CHECKS_PER_COMPARISON element checks
+// per call apart, showing the writes in between as a batch of their final values.
+// The int[] sorts (dual-pivot quicksort and its parallel version) have no hook at all:
+// a sampling thread diffs the array while the sort runs on another, so they show no
+// comparisons and only as many states as the sampler catches, which on a single core
+// can be none between the input and the output.
+final class JdkSorts {
+    enum Sort {
+        TIM_SORT("TimSort (Object[])"),
+        DUAL_PIVOT("Dual-pivot quicksort (int[])"),
+        PARALLEL_OBJECTS("parallelSort (Object[])"),
+        PARALLEL_INTS("parallelSort (int[])");
+
+        private final String label;
+
+        Sort(String label) {
+            this.label = label;
+        }
+
+        boolean sortsObjects() {
+            return this == TIM_SORT || this == PARALLEL_OBJECTS;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    record Row(String name, long comparisons, long moves, double millis) {
+    }
+
+    static final int MAX_SIZE = 1_000_000;
+    private static final int EXACT_SIZE = 4096;
+    private static final int CHECKS_PER_COMPARISON = 64;
+    private static final int TIMED_RUNS = 5;
+
+    private record Element(int value, int id) {
+    }
+
+    private JdkSorts() {
+    }
+
+    // Sorts a copy of input, passing what is seen to trace; returns the comparisons made
+    static long record(Sort sort, int[] input, OperationLog.Trace trace) throws InterruptedException {
+        if (input.length > MAX_SIZE) {
+            throw new IllegalArgumentException("JDK sorts are recorded on at most " + MAX_SIZE + " elements");
+        }
+        if (!sort.sortsObjects()) {
+            sampleInts(input, sort == Sort.PARALLEL_INTS, trace);
+            return 0;
+        }
+        Element[] a = new Element[input.length];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = new Element(input[i], i);
+        }
+        Recorder recorder = new Recorder(a, trace);
+        if (sort == Sort.TIM_SORT) {
+            Arrays.sort(a, recorder);
+        } else {
+            Arrays.parallelSort(a, recorder);
+        }
+        recorder.diff();
+        return recorder.comparisons;
+    }
+
+    private static void sampleInts(int[] input, boolean parallel, OperationLog.Trace trace) throws InterruptedException {
+        int[] a = input.clone();
+        int[] shadow = input.clone();
+        Thread sorter = new Thread(() -> {
+            if (parallel) Arrays.parallelSort(a);
+            else Arrays.sort(a);
+        }, "jdk-sort");
+        sorter.start();
+        while (sorter.isAlive()) {
+            diffInts(a, shadow, trace);
+            Thread.onSpinWait();
+        }
+        sorter.join();
+        diffInts(a, shadow, trace);
+    }
+
+    private static void diffInts(int[] a, int[] shadow, OperationLog.Trace trace) {
+        for (int i = 0; i < a.length; i++) {
+            int value = a[i];
+            if (value != shadow[i]) {
+                shadow[i] = value;
+                trace.write(i, value);
+            }
+        }
+    }
+
+    // Synchronized, so that parallelSort's calls are recorded one at a time in the order
+    // they happened to run
+    private static final class Recorder implements Comparator<Element> {
+        private final Element[] a;
+        private final Element[] shadow;
+        private final int[] slots;
+        private final int diffInterval;
+        private final OperationLog.Trace trace;
+        private int untilDiff;
+        private long comparisons;
+
+        Recorder(Element[] a, OperationLog.Trace trace) {
+            this.a = a;
+            this.trace = trace;
+            shadow = a.clone();
+            slots = new int[a.length];
+            for (int i = 0; i < a.length; i++) {
+                slots[i] = i;
+            }
+            diffInterval = a.length <= EXACT_SIZE ? 1 : a.length / CHECKS_PER_COMPARISON;
+        }
+
+        @Override
+        public synchronized int compare(Element x, Element y) {
+            if (--untilDiff <= 0) {
+                diff();
+                untilDiff = diffInterval;
+            }
+            comparisons++;
+            trace.compare(slot(x), slot(y), x.value, y.value);
+            return Integer.compare(x.value, y.value);
+        }
+
+        synchronized void diff() {
+            for (int i = 0; i < a.length; i++) {
+                Element element = a[i];
+                if (element != shadow[i]) {
+                    shadow[i] = element;
+                    slots[element.id] = i;
+                    trace.write(i, element.value);
+                }
+            }
+        }
+
+        // The slot an element was last seen in, if it is still there
+        private int slot(Element element) {
+            int slot = slots[element.id];
+            return a[slot] == element ? slot : -1;
+        }
+    }
+
+    // The JDK sorts against the hand-written ones on the same input: comparisons and
+    // element moves (swaps and writes) from recording each once, and the median time of
+    // the uninstrumented sort. The JDK Object[] sorts are timed on boxed Integers, as
+    // they would be used, and their moves are the writes the diffs caught, exact only
+    // up to EXACT_SIZE elements; the int[] sorts cannot be counted.
+    static List<Row> sideBySide(int[] input) throws InterruptedException {
+        List<Row> rows = new ArrayList<>();
+        for (Sort sort : Sort.values()) {
+            long[] moves = new long[1];
+            long comparisons = !sort.sortsObjects() ? -1 : record(sort, input, new OperationLog.Trace() {
+                @Override
+                public void compare(int i, int j, int left, int right) {
+                }
+
+                @Override
+                public void swap(int i, int j, int left, int right) {
+                    moves[0]++;
+                }
+
+                @Override
+                public void write(int i, int value) {
+                    moves[0]++;
+                }
+
+                @Override
+                public void phase(String name, int from, int to, long startNanos, long endNanos) {
+                }
+            });
+            Integer[] boxed = box(input);
+            double millis = switch (sort) {
+                case TIM_SORT -> medianMillis(boxed::clone, a -> Arrays.sort(a, Comparator.naturalOrder()));
+                case PARALLEL_OBJECTS -> medianMillis(boxed::clone, a -> Arrays.parallelSort(a, Comparator.naturalOrder()));
+                case DUAL_PIVOT -> medianMillis(input::clone, Arrays::sort);
+                case PARALLEL_INTS -> medianMillis(input::clone, Arrays::parallelSort);
+            };
+            rows.add(new Row(sort.toString(), comparisons, sort.sortsObjects() ? moves[0] : -1, millis));
+        }
+        rows.add(handWritten("Merge Sort", input, SortKernels::mergeSort));
+        rows.add(handWritten("Quick Sort", input, SortKernels::quickSort));
+        rows.add(handWritten("Heap Sort", input, SortKernels::heapSort));
+        if (input.length <= RecordedSorts.QUADRATIC_SIZE_LIMIT) {
+            rows.add(handWritten("Insertion Sort", input, SortKernels::insertionSort));
+        }
+        return rows;
+    }
+
+    // The rows as a fixed-width table, for a monospaced font; -1 prints as n/a
+    static String format(List<Row> rows) {
+        StringBuilder table = new StringBuilder(String.format("%-30s%15s%15s%12s%n", "", "comparisons", "moves", "ms"));
+        for (Row row : rows) {
+            table.append(String.format("%-30s%15s%15s%12.3f%n", row.name(),
+                    row.comparisons() < 0 ? "n/a" : String.format("%,d", row.comparisons()),
+                    row.moves() < 0 ? "n/a" : String.format("%,d", row.moves()), row.millis()));
+        }
+        return table.toString();
+    }
+
+    private static Row handWritten(String name, int[] input, Consumer<int[]> kernel) {
+        // Only the counts are needed, and a log with a listener keeps no operations
+        OperationLog log = new OperationLog((array, index, write) -> { });
+        RecordedSorts.sort(name, input.clone(), log);
+        return new Row(name, log.comparisons(), log.size(), medianMillis(input::clone, kernel));
+    }
+
+    private static Integer[] box(int[] a) {
+        Integer[] boxed = new Integer[a.length];
+        for (int i = 0; i < a.length; i++) {
+            boxed[i] = a[i];
+        }
+        return boxed;
+    }
+
+    // Copies and boxing are left out of the time
+    private static <T> double medianMillis(Supplier<T> input, Consumer<T> sort) {
+        long[] samples = new long[TIMED_RUNS];
+        for (int run = 0; run < TIMED_RUNS; run++) {
+            T a = input.get();
+            long start = System.nanoTime();
+            sort.accept(a);
+            samples[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[TIMED_RUNS / 2] / 1e6;
+    }
+}
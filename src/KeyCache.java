@@ -0,0 +1,78 @@
+import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+// Decorate-sort-undecorate for objects with a costly comparator. Each element's sort
+// key is computed once as an unsigned long that never orders two elements against
+// the comparator (a < b implies key(a) <= key(b)), packed with the element's index
+// the way KeyIndex packs ints, and the packed longs are sorted with a primitive
+// kernel. The comparator then only runs inside runs of equal keys, which are left
+// in input order and finished with the object kernel.
+final class KeyCache {
+    private KeyCache() {
+    }
+
+    // The low bits of each packed long hold the index, the rest the top of the key;
+    // the sign bit is flipped so that signed order is the keys' unsigned order
+    static <T> void sort(T[] a, ToLongFunction<? super T> key, Comparator<? super T> comparator,
+                        Consumer<long[]> longKernel, ObjectSortKernels.Kernel tieKernel) {
+        int n = a.length;
+        int indexBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(n - 1));
+        long indexMask = (1L << indexBits) - 1;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = (key.applyAsLong(a[i]) & ~indexMask | i) ^ Long.MIN_VALUE;
+        }
+        longKernel.accept(packed);
+
+        Object[] decorated = a.clone();
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked")
+            T element = (T) decorated[(int) (packed[i] & indexMask)];
+            a[i] = element;
+        }
+
+        for (int start = 0; start < n; ) {
+            long runKey = packed[start] & ~indexMask;
+            int end = start + 1;
+            while (end < n && (packed[end] & ~indexMask) == runKey) {
+                end++;
+            }
+            if (end - start > 1) {
+                tieKernel.sort(a, start, end, comparator);
+            }
+            start = end;
+        }
+    }
+
+    // Unsigned key of as much of s as fits, case folded like String.CASE_INSENSITIVE_ORDER
+    static long caseInsensitivePrefix(String s) {
+        return pack(s, true);
+    }
+
+    // Unsigned key of as much of s as fits in its low bits
+    static long prefix(String s, int bits) {
+        return pack(s, false) >>> (64 - bits);
+    }
+
+    // Codes the UTF-16 units high bits first, ASCII as a 0 and 7 bits and the rest
+    // as a 1 and 16 bits. The code is prefix-free and keeps unit order, so keys of
+    // whole strings compare like the strings; the end of s reads as zero, which
+    // ties with a trailing NUL, and whatever passes 64 bits is cut off.
+    private static long pack(String s, boolean foldCase) {
+        long key = 0;
+        int bits = 0;
+        for (int i = 0; i < s.length() && bits < 64; i++) {
+            char c = s.charAt(i);
+            if (foldCase) {
+                c = Character.toLowerCase(Character.toUpperCase(c));
+            }
+            int width = c < 0x80 ? 8 : 17;
+            long code = c < 0x80 ? c : 1L << 16 | c;
+            int shift = 64 - bits - width;
+            key |= shift >= 0 ? code << shift : code >>> -shift;
+            bits += width;
+        }
+        return key;
+    }
+}
@@ -0,0 +1,28 @@
+// Key + payload records packed into one long: the int key in the high half and the
+// record's index in the low half. Sorting the packed values with LongSortKernels
+// orders records by key, and equal keys keep their input order because the index
+// breaks the tie; the index then looks the payload up in its own array.
+final class KeyIndex {
+    private KeyIndex() {
+    }
+
+    static long pack(int key, int index) {
+        return ((long) key << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    static int key(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    static int index(long packed) {
+        return (int) packed;
+    }
+
+    static long[] pack(int[] keys) {
+        long[] packed = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            packed[i] = pack(keys[i], i);
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,125 @@
+// SortKernels specialized for long[]; keep the two in step. Packed key + index
+// records (see KeyIndex) sort through these kernels as plain longs.
+final class LongSortKernels {
+    private LongSortKernels() {
+    }
+
+    static void bubbleSort(long[] a) {
+        for (int i = 0; i < a.length - 1; i++) {
+            for (int j = 0; j < a.length - i - 1; j++) {
+                if (a[j] > a[j + 1]) {
+                    swap(a, j, j + 1);
+                }
+            }
+        }
+    }
+
+    static void selectionSort(long[] a) {
+        for (int i = 0; i < a.length - 1; i++) {
+            int minIdx = i;
+            for (int j = i + 1; j < a.length; j++) {
+                if (a[j] < a[minIdx]) {
+                    minIdx = j;
+                }
+            }
+            swap(a, i, minIdx);
+        }
+    }
+
+    static void insertionSort(long[] a) {
+        insertionSort(a, 0, a.length);
+    }
+
+    // Top-down merge sort like AlgorithmVisualizer.mergeSort, sharing one buffer
+    static void mergeSort(long[] a) {
+        mergeSort(a, new long[a.length], 0, a.length);
+    }
+
+    private static void mergeSort(long[] a, long[] buffer, int from, int to) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid);
+        mergeSort(a, buffer, mid, to);
+        if (a[mid - 1] <= a[mid]) return;
+
+        System.arraycopy(a, from, buffer, from, mid - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            a[k++] = buffer[i] <= a[j] ? buffer[i++] : a[j++];
+        }
+        System.arraycopy(buffer, i, a, k, mid - i);
+    }
+
+    static void quickSort(long[] a) {
+        quickSort(a, 0, a.length - 1);
+    }
+
+    // Same recursion and Lomuto partition as AlgorithmVisualizer.quickSort
+    static void quickSort(long[] a, int low, int high) {
+        while (low < high) {
+            int pi = lomutoPartition(a, low, high);
+            if (pi - low < high - pi) {
+                quickSort(a, low, pi - 1);
+                low = pi + 1;
+            } else {
+                quickSort(a, pi + 1, high);
+                high = pi - 1;
+            }
+        }
+    }
+
+    static int lomutoPartition(long[] a, int low, int high) {
+        long pivot = a[high];
+        int i = low - 1;
+        for (int j = low; j < high; j++) {
+            if (a[j] < pivot) {
+                i++;
+                swap(a, i, j);
+            }
+        }
+        swap(a, i + 1, high);
+        return i + 1;
+    }
+
+    static void heapSort(long[] a) {
+        int n = a.length;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, 0, end);
+            siftDown(a, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] a, int i, int n) {
+        long value = a[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) break;
+            if (child + 1 < n && a[child + 1] > a[child]) child++;
+            if (a[child] <= value) break;
+            a[i] = a[child];
+            i = child;
+        }
+        a[i] = value;
+    }
+
+    static void insertionSort(long[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long key = a[i];
+            int j = i - 1;
+            while (j >= from && a[j] > key) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    static void swap(long[] a, int i, int j) {
+        long temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.Comparator;
+
+// SortKernels for object arrays ordered by a Comparator, following the same steps so
+// the comparator call counts line up with the int versions. Every kernel sorts the
+// range [from, to); merge sort is the only stable one.
+final class ObjectSortKernels {
+    // Lets a caller pick the algorithm once and hand it around, e.g. ObjectSortKernels::heapSort
+    interface Kernel {
+        <T> void sort(T[] a, int from, int to, Comparator<? super T> c);
+    }
+
+    private ObjectSortKernels() {
+    }
+
+    static <T> void bubbleSort(T[] a, int from, int to, Comparator<? super T> c) {
+        for (int i = from; i < to - 1; i++) {
+            for (int j = from; j < to - (i - from) - 1; j++) {
+                if (c.compare(a[j], a[j + 1]) > 0) {
+                    swap(a, j, j + 1);
+                }
+            }
+        }
+    }
+
+    static <T> void selectionSort(T[] a, int from, int to, Comparator<? super T> c) {
+        for (int i = from; i < to - 1; i++) {
+            int minIdx = i;
+            for (int j = i + 1; j < to; j++) {
+                if (c.compare(a[j], a[minIdx]) < 0) {
+                    minIdx = j;
+                }
+            }
+            swap(a, i, minIdx);
+        }
+    }
+
+    static <T> void insertionSort(T[] a, int from, int to, Comparator<? super T> c) {
+        for (int i = from + 1; i < to; i++) {
+            T key = a[i];
+            int j = i - 1;
+            while (j >= from && c.compare(a[j], key) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    static <T> void mergeSort(T[] a, int from, int to, Comparator<? super T> c) {
+        @SuppressWarnings("unchecked")
+        T[] buffer = (T[]) new Object[to - from];
+        mergeSort(a, buffer, from, from, to, c);
+    }
+
+    // buffer[k - offset] stands in for position k of a
+    private static <T> void mergeSort(T[] a, T[] buffer, int offset, int from, int to, Comparator<? super T> c) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, offset, from, mid, c);
+        mergeSort(a, buffer, offset, mid, to, c);
+        if (c.compare(a[mid - 1], a[mid]) <= 0) return;
+
+        System.arraycopy(a, from, buffer, from - offset, mid - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            a[k++] = c.compare(buffer[i - offset], a[j]) <= 0 ? buffer[i++ - offset] : a[j++];
+        }
+        System.arraycopy(buffer, i - offset, a, k, mid - i);
+    }
+
+    // Same recursion and Lomuto partition as SortKernels.quickSort
+    static <T> void quickSort(T[] a, int from, int to, Comparator<? super T> c) {
+        int low = from, high = to - 1;
+        while (low < high) {
+            int pi = lomutoPartition(a, low, high, c);
+            if (pi - low < high - pi) {
+                quickSort(a, low, pi, c);
+                low = pi + 1;
+            } else {
+                quickSort(a, pi + 1, high + 1, c);
+                high = pi - 1;
+            }
+        }
+    }
+
+    private static <T> int lomutoPartition(T[] a, int low, int high, Comparator<? super T> c) {
+        T pivot = a[high];
+        int i = low - 1;
+        for (int j = low; j < high; j++) {
+            if (c.compare(a[j], pivot) < 0) {
+                i++;
+                swap(a, i, j);
+            }
+        }
+        swap(a, i + 1, high);
+        return i + 1;
+    }
+
+    static <T> void heapSort(T[] a, int from, int to, Comparator<? super T> c) {
+        int n = to - from;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, from, i, n, c);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, from, from + end);
+            siftDown(a, from, 0, end, c);
+        }
+    }
+
+    // Heap positions are relative to base
+    private static <T> void siftDown(T[] a, int base, int i, int n, Comparator<? super T> c) {
+        T value = a[base + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) break;
+            if (child + 1 < n && c.compare(a[base + child + 1], a[base + child]) > 0) child++;
+            if (c.compare(a[base + child], value) <= 0) break;
+            a[base + i] = a[base + child];
+            i = child;
+        }
+        a[base + i] = value;
+    }
+
+    static <T> void swap(T[] a, int i, int j) {
+        T temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+}
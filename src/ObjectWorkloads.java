@@ -0,0 +1,78 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.function.ToLongFunction;
+
+// Object inputs whose comparison cost dominates the sort: mixed-case words under a
+// case-insensitive order, and employee records under a four-field comparator. Each
+// workload carries a KeyCache key consistent with its comparator.
+final class ObjectWorkloads {
+    record Employee(String department, String lastName, String firstName, int age) {
+    }
+
+    record Workload<T>(String name, T[] input, Comparator<? super T> comparator, ToLongFunction<? super T> key) {
+    }
+
+    // Kept sorted, so a department's index is also its rank
+    private static final String[] DEPARTMENTS = {
+            "Accounting", "Design", "Engineering", "Facilities", "Finance", "Legal", "Marketing", "Operations",
+            "Platform", "Research", "Sales", "Security", "Support"
+    };
+    private static final int DEPARTMENT_BITS = 4;
+    private static final String[] LAST_NAMES = {
+            "Anderson", "Brown", "Chen", "Davis", "Garcia", "Gupta", "Hernandez", "Ivanov", "Johnson", "Kim",
+            "Lee", "Lopez", "Martin", "Miller", "Nguyen", "Novak", "Okafor", "Patel", "Rossi", "Schmidt",
+            "Silva", "Smith", "Tanaka", "Taylor", "Thompson", "Wang", "Williams", "Wilson", "Yamamoto", "Zhang"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Alex", "Ana", "Ben", "Chloe", "David", "Elena", "Fatima", "George", "Hana", "Ivan", "Jun", "Kai",
+            "Laura", "Luca", "Maria", "Mei", "Noah", "Omar", "Priya", "Sam", "Sofia", "Tom", "Yuki", "Zoe"
+    };
+    private static final int MIN_WORD_LENGTH = 5;
+    private static final int MAX_WORD_LENGTH = 12;
+    private static final int MIN_AGE = 20;
+    private static final int AGE_SPAN = 45;
+
+    static final Comparator<Employee> BY_DEPARTMENT_NAME_AGE = Comparator.comparing(Employee::department)
+            .thenComparing(Employee::lastName)
+            .thenComparing(Employee::firstName)
+            .thenComparingInt(Employee::age);
+
+    private ObjectWorkloads() {
+    }
+
+    static Workload<String> words(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] words = new String[n];
+        char[] letters = new char[MAX_WORD_LENGTH];
+        for (int i = 0; i < n; i++) {
+            int length = random.nextInt(MIN_WORD_LENGTH, MAX_WORD_LENGTH + 1);
+            for (int k = 0; k < length; k++) {
+                letters[k] = (char) ((random.nextBoolean() ? 'a' : 'A') + random.nextInt(26));
+            }
+            words[i] = new String(letters, 0, length);
+        }
+        return new Workload<>("Words, case-insensitive", words, String.CASE_INSENSITIVE_ORDER,
+                KeyCache::caseInsensitivePrefix);
+    }
+
+    static Workload<Employee> employees(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Employee[] employees = new Employee[n];
+        for (int i = 0; i < n; i++) {
+            employees[i] = new Employee(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)], FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    MIN_AGE + random.nextInt(AGE_SPAN));
+        }
+        return new Workload<>("Employees, 4 fields", employees, BY_DEPARTMENT_NAME_AGE, ObjectWorkloads::employeeKey);
+    }
+
+    // Department rank on top, then as much of the last name as fits
+    private static long employeeKey(Employee e) {
+        long department = Arrays.binarySearch(DEPARTMENTS, e.department());
+        if (department < 0) {
+            throw new IllegalArgumentException("Unknown department: " + e.department());
+        }
+        return department << (64 - DEPARTMENT_BITS) | KeyCache.prefix(e.lastName(), 64 - DEPARTMENT_BITS);
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Record of the array mutations a sort made, for replaying the run offline at any
+// speed. Sorts call compare, swap and write instead of touching the array directly;
+// swaps and writes are packed into one long each (operation in the top two bits,
+// index in the next 30, second index or value in the low 32) and kept in fixed-size
+// chunks, while comparisons change nothing and are only counted. A log built with
+// an Accesses listener also reports every element read and written, including a
+// sort's scratch arrays through read and copy, and keeps no operations itself; so
+// does a log built with a Trace, which is handed each operation with the values
+// involved and each phase span as they happen.
+final class OperationLog {
+    interface Accesses {
+        void access(int[] array, int index, boolean write);
+    }
+
+    interface Trace {
+        // Indices are -1 for values compared outside the array, such as in a merge buffer
+        void compare(int i, int j, int left, int right);
+
+        // left and right are a[i] and a[j] before the swap
+        void swap(int i, int j, int left, int right);
+
+        void write(int i, int value);
+
+        void phase(String name, int from, int to, long startNanos, long endNanos);
+    }
+
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final long SWAP = 0L;
+    private static final long WRITE = 1L << 62;
+    static final int MAX_INDEX = (1 << 30) - 1;
+
+    private final List<long[]> chunks = new ArrayList<>();
+    private final Accesses accesses;
+    private final Trace trace;
+    private long[] chunk;
+    private int chunkFill = CHUNK_SIZE;
+    private long size;
+    private long comparisons;
+
+    OperationLog() {
+        this(null, null);
+    }
+
+    OperationLog(Accesses accesses) {
+        this(accesses, null);
+    }
+
+    OperationLog(Trace trace) {
+        this(null, trace);
+    }
+
+    private OperationLog(Accesses accesses, Trace trace) {
+        this.accesses = accesses;
+        this.trace = trace;
+    }
+
+    // Start time to pass to endPhase; zero, without reading the clock, when not tracing
+    long beginPhase() {
+        return trace != null ? System.nanoTime() : 0;
+    }
+
+    void endPhase(String name, int from, int to, long startNanos) {
+        if (trace != null) {
+            trace.phase(name, from, to, startNanos, System.nanoTime());
+        }
+    }
+
+    // Returns a negative number, zero or a positive number as a[i] is below, equal to or above a[j]
+    int compare(int[] a, int i, int j) {
+        comparisons++;
+        if (accesses != null) {
+            accesses.access(a, i, false);
+            accesses.access(a, j, false);
+        }
+        if (trace != null) {
+            trace.compare(i, j, a[i], a[j]);
+        }
+        return Integer.compare(a[i], a[j]);
+    }
+
+    // a[i] against a value held outside the array, such as insertion sort's key
+    int compareWith(int[] a, int i, int value) {
+        comparisons++;
+        if (accesses != null) {
+            accesses.access(a, i, false);
+        }
+        if (trace != null) {
+            trace.compare(i, -1, a[i], value);
+        }
+        return Integer.compare(a[i], value);
+    }
+
+    int compareValue(int value, int other) {
+        comparisons++;
+        if (trace != null) {
+            trace.compare(-1, -1, value, other);
+        }
+        return Integer.compare(value, other);
+    }
+
+    // A read that is not part of a comparison, such as from a merge buffer
+    int read(int[] a, int i) {
+        if (accesses != null) {
+            accesses.access(a, i, false);
+        }
+        return a[i];
+    }
+
+    // System.arraycopy between scratch space and the array; only seen by the listener,
+    // since replaying needs just the writes back into the array
+    void copy(int[] from, int fromIndex, int[] to, int toIndex, int length) {
+        if (accesses != null) {
+            for (int k = 0; k < length; k++) {
+                accesses.access(from, fromIndex + k, false);
+                accesses.access(to, toIndex + k, true);
+            }
+        }
+        System.arraycopy(from, fromIndex, to, toIndex, length);
+    }
+
+    void swap(int[] a, int i, int j) {
+        if (accesses != null) {
+            accesses.access(a, i, false);
+            accesses.access(a, j, false);
+            accesses.access(a, i, true);
+            accesses.access(a, j, true);
+        }
+        if (trace != null) {
+            trace.swap(i, j, a[i], a[j]);
+        }
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+        append(SWAP | (long) i << 32 | j);
+    }
+
+    void write(int[] a, int i, int value) {
+        if (accesses != null) {
+            accesses.access(a, i, true);
+        }
+        if (trace != null) {
+            trace.write(i, value);
+        }
+        a[i] = value;
+        append(WRITE | (long) i << 32 | (value & 0xFFFFFFFFL));
+    }
+
+    long size() {
+        return size;
+    }
+
+    long comparisons() {
+        return comparisons;
+    }
+
+    long get(long index) {
+        return chunks.get((int) (index >>> CHUNK_SHIFT))[(int) (index & (CHUNK_SIZE - 1))];
+    }
+
+    static boolean isSwap(long op) {
+        return (op & WRITE) == 0;
+    }
+
+    static int index(long op) {
+        return (int) (op >>> 32) & MAX_INDEX;
+    }
+
+    // The second index of a swap, or the value of a write
+    static int operand(long op) {
+        return (int) op;
+    }
+
+    // Applies one recorded operation to a
+    static void apply(long op, int[] a) {
+        int i = index(op);
+        if (isSwap(op)) {
+            int j = operand(op);
+            int temp = a[i];
+            a[i] = a[j];
+            a[j] = temp;
+        } else {
+            a[i] = operand(op);
+        }
+    }
+
+    private void append(long op) {
+        size++;
+        if (accesses != null || trace != null) return;
+        if (chunkFill == CHUNK_SIZE) {
+            chunk = new long[CHUNK_SIZE];
+            chunks.add(chunk);
+            chunkFill = 0;
+        }
+        chunk[chunkFill++] = op;
+    }
+}
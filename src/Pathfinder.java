@@ -0,0 +1,241 @@
+import java.util.Arrays;
+
+// Shortest paths over a Grid with 4-way moves, entirely on int-indexed arrays: the
+// distance to every cell, a state byte per cell for drawing, and an open set that is
+// a FIFO ring for BFS and an IntMinHeap or BucketQueue for Dijkstra and A*. Stepping
+// onto a cell costs its weight (1 for BFS). The path is recovered from the distances
+// alone by walking back through expanded neighbours whose distance plus the step
+// matches, so no parent array is kept. The listener is called every reportInterval
+// expansions and once at the end; time spent in it is left out of elapsedNanos.
+final class Pathfinder {
+    enum Algorithm {
+        BFS("BFS"),
+        DIJKSTRA("Dijkstra"),
+        A_STAR("A*");
+
+        private final String label;
+
+        Algorithm(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    enum Queue {
+        BINARY_HEAP("Binary heap"),
+        BUCKETS("Bucket queue");
+
+        private final String label;
+
+        Queue(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    interface Listener {
+        void progress(Pathfinder finder) throws InterruptedException;
+    }
+
+    // One bit each, so a renderer can OR a block of cells together
+    static final byte UNSEEN = 0;
+    static final byte CLOSED = 1;
+    static final byte OPEN = 2;
+    static final byte PATH = 4;
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final Grid grid;
+    private final Algorithm algorithm;
+    private final Queue queueKind;
+    private final Listener listener;
+    private final int reportInterval;
+    private final int[] distances;
+    private final byte[] states;
+
+    private long expanded;
+    private long relaxations;
+    private int pathLength;
+    private long pathCost = -1;
+    private long elapsedNanos;
+    private long listenerNanos;
+    private int untilReport;
+
+    Pathfinder(Grid grid, Algorithm algorithm, Queue queueKind, int reportInterval, Listener listener) {
+        this.grid = grid;
+        this.algorithm = algorithm;
+        this.queueKind = queueKind;
+        this.reportInterval = Math.max(1, reportInterval);
+        this.listener = listener;
+        distances = new int[grid.cells()];
+        states = new byte[grid.cells()];
+    }
+
+    Grid grid() {
+        return grid;
+    }
+
+    Algorithm algorithm() {
+        return algorithm;
+    }
+
+    // UNSEEN, CLOSED, OPEN or PATH per cell; read by the renderer while the search runs
+    byte[] states() {
+        return states;
+    }
+
+    long expanded() {
+        return expanded;
+    }
+
+    long relaxations() {
+        return relaxations;
+    }
+
+    // Cells on the path including both ends, 0 when the goal is unreachable
+    int pathLength() {
+        return pathLength;
+    }
+
+    // Sum of the weights stepped onto, or -1 when the goal is unreachable
+    long pathCost() {
+        return pathCost;
+    }
+
+    long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // Returns whether goal was reached; the path is marked in states()
+    boolean run(int start, int goal) throws InterruptedException {
+        long begin = System.nanoTime();
+        Arrays.fill(distances, UNREACHED);
+        Arrays.fill(states, UNSEEN);
+        expanded = 0;
+        relaxations = 0;
+        listenerNanos = 0;
+        untilReport = reportInterval;
+        boolean reached = !grid.isWall(start) && !grid.isWall(goal)
+                && (algorithm == Algorithm.BFS ? breadthFirst(start, goal) : bestFirst(start, goal));
+        pathLength = reached ? markPath(start, goal) : 0;
+        pathCost = reached ? distances[goal] : -1;
+        elapsedNanos = System.nanoTime() - begin - listenerNanos;
+        listener.progress(this);
+        return reached;
+    }
+
+    private boolean breadthFirst(int start, int goal) throws InterruptedException {
+        int[] ring = new int[grid.cells()];
+        int head = 0, tail = 0;
+        distances[start] = 0;
+        states[start] = OPEN;
+        ring[tail++] = start;
+        while (head != tail) {
+            int cell = ring[head++];
+            states[cell] = CLOSED;
+            if (cell == goal) return true;
+            expand();
+            int next = distances[cell] + 1;
+            int x = cell % grid.width();
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbour = neighbour(cell, x, direction);
+                if (neighbour < 0 || distances[neighbour] != UNREACHED) continue;
+                relaxations++;
+                distances[neighbour] = next;
+                states[neighbour] = OPEN;
+                ring[tail++] = neighbour;
+            }
+        }
+        return false;
+    }
+
+    // Dijkstra, or A* when the key adds the Manhattan distance to goal
+    private boolean bestFirst(int start, int goal) throws InterruptedException {
+        boolean heuristic = algorithm == Algorithm.A_STAR;
+        // A step raises g by at most maxWeight and moves h by one either way
+        IntPriorityQueue open = queueKind == Queue.BINARY_HEAP ? new IntMinHeap(grid.cells())
+                : new BucketQueue(grid.maxWeight() + (heuristic ? 1 : 0));
+        distances[start] = 0;
+        states[start] = OPEN;
+        open.offer(start, heuristic ? grid.distance(start, goal) : 0);
+        while (!open.isEmpty()) {
+            int cell = open.poll();
+            if (states[cell] == CLOSED) continue;
+            states[cell] = CLOSED;
+            if (cell == goal) return true;
+            expand();
+            int distance = distances[cell];
+            int x = cell % grid.width();
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbour = neighbour(cell, x, direction);
+                if (neighbour < 0 || states[neighbour] == CLOSED) continue;
+                int next = distance + grid.weight(neighbour);
+                if (next >= distances[neighbour]) continue;
+                relaxations++;
+                distances[neighbour] = next;
+                states[neighbour] = OPEN;
+                open.offer(neighbour, heuristic ? next + grid.distance(neighbour, goal) : next);
+            }
+        }
+        return false;
+    }
+
+    private void expand() throws InterruptedException {
+        expanded++;
+        if (--untilReport == 0) {
+            untilReport = reportInterval;
+            long start = System.nanoTime();
+            listener.progress(this);
+            listenerNanos += System.nanoTime() - start;
+        }
+    }
+
+    // Up, right, down, left of cell in column x; -1 off the grid or into a wall
+    private int neighbour(int cell, int x, int direction) {
+        int width = grid.width();
+        int neighbour = switch (direction) {
+            case 0 -> cell - width;
+            case 1 -> x + 1 < width ? cell + 1 : -1;
+            case 2 -> cell + width;
+            default -> x > 0 ? cell - 1 : -1;
+        };
+        return neighbour < 0 || neighbour >= grid.cells() || grid.isWall(neighbour) ? -1 : neighbour;
+    }
+
+    private int stepCost(int cell) {
+        return algorithm == Algorithm.BFS ? 1 : grid.weight(cell);
+    }
+
+    // Only expanded cells are followed: their distances are final, while a queued
+    // cell's may still come from a predecessor whose own distance has dropped since
+    private int markPath(int start, int goal) {
+        int length = 1;
+        int cell = goal;
+        states[cell] = PATH;
+        while (cell != start) {
+            int target = distances[cell] - stepCost(cell);
+            int previous = -1;
+            int x = cell % grid.width();
+            for (int direction = 0; direction < 4 && previous < 0; direction++) {
+                int neighbour = neighbour(cell, x, direction);
+                if (neighbour >= 0 && states[neighbour] == CLOSED && distances[neighbour] == target) {
+                    previous = neighbour;
+                }
+            }
+            if (previous < 0) {
+                throw new IllegalStateException("No predecessor of cell " + cell + " at distance " + target);
+            }
+            cell = previous;
+            states[cell] = PATH;
+            length++;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,124 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+// Overlay with rendering and engine throughput readings, drawn on its own canvas on
+// top of the bars so it never forces a redraw of the array. Frames only cost a
+// ring buffer write of their render time; everything else is sampled a few times a
+// second by an AnimationTimer while the overlay is visible.
+final class PerformanceHud {
+    private static final long SAMPLE_INTERVAL_NANOS = 250_000_000L;
+    private static final int FRAME_HISTORY = 256;
+    private static final double PADDING = 8;
+    private static final double LINE_HEIGHT = 15;
+    private static final Font FONT = Font.font("Monospaced", 12);
+
+    private final Canvas overlay;
+    private final LongSupplier operations;
+    private final FrameChannel frames;
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final AnimationTimer timer;
+
+    // Written on the FX thread only
+    private final long[] renderNanos = new long[FRAME_HISTORY];
+    private int renderCount;
+    private long framesRendered;
+
+    private long lastSampleTime;
+    private long lastFrames;
+    private long lastOperations;
+    private String[] lines = new String[0];
+
+    PerformanceHud(Canvas overlay, LongSupplier operations, FrameChannel frames) {
+        this.overlay = overlay;
+        this.operations = operations;
+        this.frames = frames;
+        overlay.setMouseTransparent(true);
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (now - lastSampleTime >= SAMPLE_INTERVAL_NANOS) {
+                    sample(now);
+                    draw();
+                }
+            }
+        };
+    }
+
+    void setVisible(boolean visible) {
+        overlay.setVisible(visible);
+        if (visible) {
+            lastSampleTime = System.nanoTime();
+            lastFrames = framesRendered;
+            lastOperations = operations.getAsLong();
+            timer.start();
+        } else {
+            timer.stop();
+        }
+    }
+
+    // Called on the FX thread once a frame is drawn
+    void frameFinished(long startNanos) {
+        renderNanos[renderCount++ % FRAME_HISTORY] = System.nanoTime() - startNanos;
+        framesRendered++;
+    }
+
+    private void sample(long now) {
+        double seconds = (now - lastSampleTime) / 1e9;
+        long rendered = framesRendered;
+        long ops = operations.getAsLong();
+        // The engine's counters restart with every run
+        long opsDelta = ops >= lastOperations ? ops - lastOperations : ops;
+
+        long[] recent = Arrays.copyOf(renderNanos, Math.min(renderCount, FRAME_HISTORY));
+        Arrays.sort(recent);
+
+        Runtime runtime = Runtime.getRuntime();
+        long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+        long gcCount = 0, gcMillis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+
+        lines = new String[] {
+            String.format("FPS        %8.1f", (rendered - lastFrames) / seconds),
+            String.format("Render p50 %8.3f ms", percentile(recent, 0.50) / 1e6),
+            String.format("Render p99 %8.3f ms", percentile(recent, 0.99) / 1e6),
+            String.format("Ops/sec    %,8.0f", opsDelta / seconds),
+            String.format("Queued     %8d / %d frames", frames.size(), frames.capacity()),
+            String.format("Skipped    %,8d frames", frames.skipped()),
+            String.format("Heap       %,8d / %,d MB", usedHeap >> 20, runtime.maxMemory() >> 20),
+            String.format("GC         %8d (%,d ms)", gcCount, gcMillis)
+        };
+        lastSampleTime = now;
+        lastFrames = rendered;
+        lastOperations = ops;
+    }
+
+    private void draw() {
+        GraphicsContext g = overlay.getGraphicsContext2D();
+        g.clearRect(0, 0, overlay.getWidth(), overlay.getHeight());
+        double width = 210;
+        double height = lines.length * LINE_HEIGHT + PADDING * 2;
+        g.setFill(Color.rgb(0, 0, 0, 0.65));
+        g.fillRoundRect(PADDING, PADDING, width, height, 8, 8);
+        g.setFill(Color.LIME);
+        g.setFont(FONT);
+        for (int i = 0; i < lines.length; i++) {
+            g.fillText(lines[i], PADDING * 2, PADDING * 2 + LINE_HEIGHT * (i + 0.7));
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) (fraction * sorted.length))];
+    }
+}
@@ -0,0 +1,514 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+// Renders arrays too large for one bar per element into an ARGB pixel buffer. The
+// bar view draws one pixel column per range of elements: solid up to the smallest
+// value in the range and a lighter band up to the largest. The other views plot
+// every element as a dot colored by its value, either at its value (dot plot) or at
+// its distance from its sorted position (disparity), or sample the array around a
+// ring with the value as hue (color wheel). Pathfinding grids are drawn the same
+// way, one pixel per block of cells. The width is cut into column strips that
+// a small dedicated pool renders in parallel, and the buffer goes to the image in one
+// setPixels call. Strips never share a pixel, so the passes need no synchronization
+// beyond the joins.
+final class PixelBufferView {
+    private static final int BACKGROUND = 0xFFFFFFFF;
+    private static final int STRIPS_PER_THREAD = 4;
+    private static final int MAX_DOT_RADIUS = 3;
+    private static final int HUES = 1024;
+    // Wheel angles are stored as fractions of a turn in this many bits
+    private static final int ANGLE_BITS = 24;
+    private static final double WHEEL_INNER_RADIUS = 0.35;
+    // Highlights on the wheel also take in elements within 1/this of a turn either side
+    private static final int WHEEL_HIGHLIGHT_STEPS = 360;
+    // Final positions come from a direct table when values span at most this many times n
+    private static final int RANK_TABLE_SPREAD = 4;
+    private static final int[] HUE_PALETTE = huePalette();
+    // Indexed by the OR of the Pathfinder states in a block: the path shows over the
+    // queued cells, and those over the expanded ones
+    private static final int[] GRID_STATE_COLORS = {
+            0, 0xFFADD8E6, 0xFFFFA500, 0xFFFFA500, 0xFFFF0000, 0xFFFF0000, 0xFFFF0000, 0xFFFF0000
+    };
+    private static final int GRID_WALL = 0xFF37474F;
+    private static final int GRID_HEAVIEST_SHADE = 0xB0;
+
+    enum View {
+        BARS("Bars"),
+        DOTS("Dot plot"),
+        COLOR_WHEEL("Color wheel"),
+        DISPARITY("Disparity");
+
+        private final String label;
+
+        View(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final double maxBarHeight;
+    private final int[] pixels;
+    private final int[] columnMin;
+    private final int[] columnMax;
+    private final int[] minTops;
+    private final int[] maxTops;
+    private final int[] columnColors;
+    private final ForkJoinPool pool;
+    private final int strips;
+    // fillStrip's scratch arrays, one set per strip so that frames allocate nothing
+    private final int[][] stripRows;
+    private final int[][] stripRowStarts;
+    private final int[][] stripNext;
+    private final int[][] stripChanges;
+    private WritableImage image;
+    private int[] wheelAngles;
+
+    // Where each value ends up once sorted, for the disparity view: value - rankBase
+    // when the values are distinct and consecutive, else the first sorted position of
+    // every value from rankBase up (one past the last entry for the value above) or,
+    // for sparse values, the sorted copy itself
+    private int[] rankSource;
+    private boolean consecutiveRanks;
+    private int[] lowerBounds;
+    private int[] sortedValues;
+    private int rankBase;
+
+    private int minValue;
+    private double valueRange;
+
+    PixelBufferView(int width, int height, double maxBarHeight, int threads) {
+        this.width = width;
+        this.height = height;
+        this.maxBarHeight = maxBarHeight;
+        pixels = new int[width * height];
+        columnMin = new int[width];
+        columnMax = new int[width];
+        minTops = new int[width];
+        maxTops = new int[width];
+        columnColors = new int[width];
+        pool = new ForkJoinPool(threads);
+        strips = Math.min(width, threads * STRIPS_PER_THREAD);
+        stripRows = new int[strips][];
+        stripRowStarts = new int[strips][];
+        stripNext = new int[strips][];
+        stripChanges = new int[strips][];
+        for (int strip = 0; strip < strips; strip++) {
+            int span = stripStart(strip + 1, width) - stripStart(strip, width);
+            stripRows[strip] = new int[span];
+            stripRowStarts[strip] = new int[height + 2];
+            stripNext[strip] = new int[height + 1];
+            stripChanges[strip] = new int[2 * span];
+        }
+    }
+
+    // Stops the raster threads; the view cannot draw afterwards
+    void close() {
+        pool.shutdown();
+    }
+
+    // Baseline and span of the value axis of the last frame, as the bar view computes them
+    int minValue() {
+        return minValue;
+    }
+
+    double valueRange() {
+        return valueRange;
+    }
+
+    // Fills the pixel buffer; the highlighted indices and the buffer range [bufferFrom,
+    // bufferTo) tint every column they fall into
+    int[] rasterize(int[] a, int highlight1, int highlight2, int highlightArgb,
+                    int bufferFrom, int bufferTo, int barArgb, int bandArgb, int bufferArgb) {
+        int n = a.length;
+        int columns = Math.min(width, n);
+        scanColumns(a, columns);
+
+        int baseline = minValue;
+        double scale = maxBarHeight / valueRange;
+        int highlightColumn1 = column(highlight1, n, columns);
+        int highlightColumn2 = column(highlight2, n, columns);
+        int bufferFromColumn = bufferTo > bufferFrom ? column(bufferFrom, n, columns) : -1;
+        int bufferToColumn = bufferTo > bufferFrom ? column(bufferTo - 1, n, columns) : -2;
+        pool.invoke(new StripTask(0, strips, strip -> {
+            int from = stripStart(strip, width), to = stripStart(strip + 1, width);
+            for (int x = from; x < to; x++) {
+                int c = (int) ((long) x * columns / width);
+                minTops[x] = height - (int) Math.round((columnMin[c] - (double) baseline) * scale);
+                maxTops[x] = height - (int) Math.round((columnMax[c] - (double) baseline) * scale);
+                columnColors[x] = c == highlightColumn1 || c == highlightColumn2 ? highlightArgb
+                        : c >= bufferFromColumn && c <= bufferToColumn ? bufferArgb : barArgb;
+            }
+            fillStrip(strip, from, to, bandArgb);
+        }));
+        return pixels;
+    }
+
+    // Plots each element at its index and value, the same axes as the bars
+    int[] dots(int[] a, int highlight1, int highlight2, int highlightArgb, int bufferFrom, int bufferTo, int bufferArgb) {
+        scanColumns(a, Math.min(width, a.length));
+        plot(a, false, highlight1, highlight2, highlightArgb, bufferFrom, bufferTo, bufferArgb);
+        return pixels;
+    }
+
+    // Plots each element at its index and its distance from where it belongs, so the
+    // dots settle onto the bottom edge as the array gets sorted
+    int[] disparity(int[] a, int highlight1, int highlight2, int highlightArgb, int bufferFrom, int bufferTo, int bufferArgb) {
+        scanColumns(a, Math.min(width, a.length));
+        prepareRanks(a);
+        plot(a, true, highlight1, highlight2, highlightArgb, bufferFrom, bufferTo, bufferArgb);
+        return pixels;
+    }
+
+    private void plot(int[] a, boolean disparity, int highlight1, int highlight2, int highlightArgb,
+                      int bufferFrom, int bufferTo, int bufferArgb) {
+        int n = a.length;
+        int radius = Math.max(0, Math.min(MAX_DOT_RADIUS, (width / n - 1) / 2));
+        int baseline = minValue;
+        double scale = disparity ? maxBarHeight / Math.max(1, n - 1) : maxBarHeight / valueRange;
+        double hueScale = (HUES - 1) / valueRange;
+        pool.invoke(new StripTask(0, strips, strip -> {
+            int from = stripStart(strip, width), to = stripStart(strip + 1, width);
+            for (int y = 0; y < height; y++) {
+                Arrays.fill(pixels, y * width + from, y * width + to, BACKGROUND);
+            }
+            // Dots centered just outside the strip may still reach into it
+            for (int i = firstElementAt(Math.max(0, from - radius), n), end = firstElementAt(Math.min(width, to + radius), n); i < end; i++) {
+                int value = a[i];
+                double offset = disparity ? distanceFromFinal(i, value) : value - (double) baseline;
+                int y = clampRow(height - (int) Math.round(offset * scale), height - 1);
+                int color = i == highlight1 || i == highlight2 ? highlightArgb
+                        : i >= bufferFrom && i < bufferTo ? bufferArgb
+                        : hue(value, baseline, hueScale);
+                int x = (int) ((long) i * width / n);
+                if (radius == 0) {
+                    pixels[y * width + x] = color;
+                } else {
+                    fillDot(x, y, radius, from, to, color);
+                }
+            }
+        }));
+    }
+
+    private void fillDot(int x, int y, int radius, int from, int to, int color) {
+        int left = Math.max(from, x - radius), right = Math.min(to, x + radius + 1);
+        if (left >= right) return;
+        for (int row = Math.max(0, y - radius), bottom = Math.min(height - 1, y + radius); row <= bottom; row++) {
+            Arrays.fill(pixels, row * width + left, row * width + right, color);
+        }
+    }
+
+    // Samples the array around a ring clockwise from twelve o'clock, one element per
+    // pixel angle, with the value as hue; a sorted array shows as an unbroken spectrum
+    int[] colorWheel(int[] a, int highlight1, int highlight2, int highlightArgb) {
+        int n = a.length;
+        scanColumns(a, Math.min(width, n));
+        if (wheelAngles == null) {
+            wheelAngles = wheelAngles();
+        }
+        int baseline = minValue;
+        double hueScale = (HUES - 1) / valueRange;
+        pool.invoke(new StripTask(0, strips, strip -> {
+            int from = stripStart(strip, width), to = stripStart(strip + 1, width);
+            for (int y = 0; y < height; y++) {
+                for (int p = y * width + from, end = y * width + to; p < end; p++) {
+                    int angle = wheelAngles[p];
+                    if (angle < 0) {
+                        pixels[p] = BACKGROUND;
+                        continue;
+                    }
+                    int i = (int) ((long) angle * n >>> ANGLE_BITS);
+                    pixels[p] = wheelHighlighted(i, highlight1, n) || wheelHighlighted(i, highlight2, n) ? highlightArgb
+                            : hue(a[i], baseline, hueScale);
+                }
+            }
+        }));
+        return pixels;
+    }
+
+    // Draws each pixel's block of cells in the most advanced search state in it (path,
+    // then queued, then expanded); untouched blocks show their first cell as a wall
+    // or in a grey that darkens with its weight
+    int[] grid(Grid grid, byte[] states) {
+        int columns = grid.width(), rows = grid.height();
+        int[] shades = new int[grid.maxWeight() + 1];
+        for (int weight = 1; weight <= grid.maxWeight(); weight++) {
+            int level = 0xFF - (0xFF - GRID_HEAVIEST_SHADE) * (weight - 1) / Math.max(1, grid.maxWeight() - 1);
+            shades[weight] = 0xFF000000 | level << 16 | level << 8 | level;
+        }
+        int[] columnStarts = new int[width + 1];
+        for (int x = 0; x <= width; x++) {
+            columnStarts[x] = blockStart(x, columns, width);
+        }
+        pool.invoke(new StripTask(0, strips, strip -> {
+            int from = stripStart(strip, width), to = stripStart(strip + 1, width);
+            int[] seen = new int[to - from];
+            for (int y = 0; y < height; y++) {
+                int firstRow = blockStart(y, rows, height), endRow = Math.max(firstRow + 1, blockStart(y + 1, rows, height));
+                Arrays.fill(seen, Pathfinder.UNSEEN);
+                for (int row = firstRow; row < endRow; row++) {
+                    int rowStart = row * columns;
+                    for (int x = from; x < to; x++) {
+                        int first = rowStart + columnStarts[x];
+                        int end = Math.max(first + 1, rowStart + columnStarts[x + 1]);
+                        int state = 0;
+                        for (int cell = first; cell < end; cell++) {
+                            state |= states[cell];
+                        }
+                        seen[x - from] |= state;
+                    }
+                }
+                for (int x = from; x < to; x++) {
+                    int cell = firstRow * columns + columnStarts[x];
+                    int state = seen[x - from];
+                    pixels[y * width + x] = state != Pathfinder.UNSEEN ? GRID_STATE_COLORS[state]
+                            : grid.isWall(cell) ? GRID_WALL : shades[grid.weight(cell)];
+                }
+            }
+        }));
+        return pixels;
+    }
+
+    // First of the cells that fall on pixel p when cells are spread over pixels
+    private static int blockStart(int p, int cells, int pixels) {
+        return (int) ((long) p * cells / pixels);
+    }
+
+    // Clamped since the sort keeps writing while a frame is drawn
+    private static int hue(int value, int baseline, double hueScale) {
+        return HUE_PALETTE[Math.max(0, Math.min(HUES - 1, (int) ((value - (double) baseline) * hueScale)))];
+    }
+
+    private static boolean wheelHighlighted(int i, int highlight, int n) {
+        return highlight >= 0 && (i == highlight || (long) Math.abs(i - highlight) * WHEEL_HIGHLIGHT_STEPS < n);
+    }
+
+    // Fraction of a turn of every pixel inside the ring, -1 outside it
+    private int[] wheelAngles() {
+        int[] angles = new int[width * height];
+        double centerX = width / 2.0, centerY = height / 2.0;
+        double outer = Math.min(width, height) / 2.0 - 2, inner = outer * WHEEL_INNER_RADIUS;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double dx = x + 0.5 - centerX, dy = y + 0.5 - centerY;
+                double distance = Math.hypot(dx, dy);
+                if (distance < inner || distance > outer) {
+                    angles[y * width + x] = -1;
+                } else {
+                    double turn = Math.atan2(dx, -dy) / (2 * Math.PI);
+                    angles[y * width + x] = (int) ((turn < 0 ? turn + 1 : turn) * (1 << ANGLE_BITS)) & ((1 << ANGLE_BITS) - 1);
+                }
+            }
+        }
+        return angles;
+    }
+
+    // Per-column min/max of the values, then the overall baseline and span with zero
+    // kept on the axis as the bar view does
+    private void scanColumns(int[] a, int columns) {
+        int n = a.length;
+        pool.invoke(new StripTask(0, strips, strip -> {
+            for (int c = stripStart(strip, columns), end = stripStart(strip + 1, columns); c < end; c++) {
+                int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+                for (int i = elementStart(c, n, columns), stop = elementStart(c + 1, n, columns); i < stop; i++) {
+                    int value = a[i];
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                columnMin[c] = min;
+                columnMax[c] = max;
+            }
+        }));
+
+        int low = 0, high = Integer.MIN_VALUE;
+        for (int c = 0; c < columns; c++) {
+            low = Math.min(low, columnMin[c]);
+            high = Math.max(high, columnMax[c]);
+        }
+        minValue = low;
+        valueRange = Math.max(1, (double) high - low);
+    }
+
+    // Sorting only moves values around, so the sorted order is taken once per array.
+    // The sort may be mid-swap while the copy is made, which at worst puts a few
+    // dots one step off for the run.
+    private void prepareRanks(int[] a) {
+        if (rankSource == a) return;
+        int[] sorted = a.clone();
+        Arrays.parallelSort(sorted);
+        int n = sorted.length;
+        long span = (long) sorted[n - 1] - sorted[0] + 1;
+        rankBase = sorted[0];
+        consecutiveRanks = span == n && IntStream.range(1, n).parallel().allMatch(i -> sorted[i] != sorted[i - 1]);
+        lowerBounds = null;
+        sortedValues = null;
+        if (consecutiveRanks) {
+            rankSource = a;
+            return;
+        }
+        if (span <= (long) RANK_TABLE_SPREAD * n) {
+            lowerBounds = new int[(int) span + 1];
+            for (int k = 0, i = 0; k <= span; k++) {
+                while (i < n && sorted[i] < (long) rankBase + k) {
+                    i++;
+                }
+                lowerBounds[k] = i;
+            }
+        } else {
+            sortedValues = sorted;
+        }
+        rankSource = a;
+    }
+
+    // Steps from index to the run of sorted positions holding value, zero inside it
+    private int distanceFromFinal(int index, int value) {
+        int first, end;
+        if (consecutiveRanks) {
+            first = (int) Math.max(0, Math.min(rankSource.length - 1, (long) value - rankBase));
+            end = first + 1;
+        } else if (lowerBounds != null) {
+            int k = (int) Math.max(0, Math.min(lowerBounds.length - 2, (long) value - rankBase));
+            first = lowerBounds[k];
+            end = lowerBounds[k + 1];
+        } else {
+            first = lowerBound(sortedValues, value);
+            end = value == Integer.MAX_VALUE ? sortedValues.length : lowerBound(sortedValues, value + 1);
+        }
+        return index < first ? first - index : index >= end ? index - end + 1 : 0;
+    }
+
+    private static int lowerBound(int[] sorted, int value) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Walks the strip top to bottom keeping one row of it up to date: a column turns
+    // to the band color on the row of its maximum and to its bar color on the row of
+    // its minimum, and every row is a straight copy of that template. The changes are
+    // bucketed by row first, band before bar so the bar wins when both fall together.
+    private void fillStrip(int strip, int from, int to, int bandArgb) {
+        int span = to - from;
+        int[] row = stripRows[strip];
+        Arrays.fill(row, BACKGROUND);
+        int[] rowStarts = stripRowStarts[strip];
+        Arrays.fill(rowStarts, 0);
+        for (int x = from; x < to; x++) {
+            rowStarts[clampRow(maxTops[x]) + 1]++;
+            rowStarts[clampRow(minTops[x]) + 1]++;
+        }
+        for (int y = 0; y <= height; y++) {
+            rowStarts[y + 1] += rowStarts[y];
+        }
+        int[] changes = stripChanges[strip];
+        int[] next = stripNext[strip];
+        System.arraycopy(rowStarts, 0, next, 0, height + 1);
+        for (int x = from; x < to; x++) {
+            changes[next[clampRow(maxTops[x])]++] = (x - from) << 1;
+        }
+        for (int x = from; x < to; x++) {
+            changes[next[clampRow(minTops[x])]++] = (x - from) << 1 | 1;
+        }
+
+        for (int y = 0; y < height; y++) {
+            for (int k = rowStarts[y], end = rowStarts[y + 1]; k < end; k++) {
+                int change = changes[k];
+                int x = change >>> 1;
+                row[x] = (change & 1) == 0 ? bandArgb : columnColors[from + x];
+            }
+            System.arraycopy(row, 0, pixels, y * width + from, span);
+        }
+    }
+
+    private int clampRow(int y) {
+        return clampRow(y, height);
+    }
+
+    private static int clampRow(int y, int limit) {
+        return Math.max(0, Math.min(limit, y));
+    }
+
+    // Uploads the last rasterized frame; FX thread only
+    WritableImage upload() {
+        if (image == null) {
+            image = new WritableImage(width, height);
+        }
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+        return image;
+    }
+
+    private static int column(int index, int n, int columns) {
+        return index < 0 || index >= n ? -1 : (int) ((long) index * columns / n);
+    }
+
+    private static int elementStart(int column, int n, int columns) {
+        return (int) ((long) column * n / columns);
+    }
+
+    // First element whose dot lands on column x or to the right of it
+    private int firstElementAt(int x, int n) {
+        return (int) (((long) x * n + width - 1) / width);
+    }
+
+    private int stripStart(int strip, int length) {
+        return (int) ((long) strip * length / strips);
+    }
+
+    // Fully saturated hues from red around to just short of red again
+    private static int[] huePalette() {
+        int[] palette = new int[HUES];
+        for (int h = 0; h < HUES; h++) {
+            double sector = h * 6.0 / HUES;
+            int segment = (int) sector;
+            int rising = (int) Math.round((sector - segment) * 255), falling = 255 - rising;
+            int rgb = switch (segment) {
+                case 0 -> 255 << 16 | rising << 8;
+                case 1 -> falling << 16 | 255 << 8;
+                case 2 -> 255 << 8 | rising;
+                case 3 -> falling << 8 | 255;
+                case 4 -> rising << 16 | 255;
+                default -> 255 << 16 | falling;
+            };
+            palette[h] = 0xFF000000 | rgb;
+        }
+        return palette;
+    }
+
+    private static final class StripTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient IntConsumer body;
+
+        StripTask(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+            } else if (to > from) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StripTask(from, mid, body), new StripTask(mid, to, body));
+            }
+        }
+    }
+}
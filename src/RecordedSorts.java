@@ -0,0 +1,161 @@
+import java.util.Set;
+
+// The visualizer's sorts written against an OperationLog, so that a run can be
+// recorded at full speed and replayed offline. Each follows the same steps as its
+// instrumented version in AlgorithmVisualizer.
+final class RecordedSorts {
+    static final Set<String> ALGORITHMS = Set.of(
+            "Bubble Sort", "Selection Sort", "Insertion Sort", "Merge Sort", "Quick Sort", "Heap Sort");
+
+    // Quadratic sorts log about n^2 / 4 swaps or writes, so their inputs are kept small
+    static final int QUADRATIC_SIZE_LIMIT = 5_000;
+    private static final Set<String> QUADRATIC = Set.of("Bubble Sort", "Selection Sort", "Insertion Sort");
+
+    private RecordedSorts() {
+    }
+
+    static boolean supports(String algorithm) {
+        return ALGORITHMS.contains(algorithm);
+    }
+
+    static int maxSize(String algorithm) {
+        return QUADRATIC.contains(algorithm) ? QUADRATIC_SIZE_LIMIT : OperationLog.MAX_INDEX;
+    }
+
+    // About how many swaps and writes a run on a shuffled input of n elements logs;
+    // Quick Sort can log quadratically many on inputs with few distinct values
+    static long expectedOperations(String algorithm, int n) {
+        long levels = 64 - Long.numberOfLeadingZeros(Math.max(1, n - 1));
+        return QUADRATIC.contains(algorithm) ? (long) n * n / 4 : n * levels;
+    }
+
+    static void sort(String algorithm, int[] a, OperationLog log) {
+        if (a.length > maxSize(algorithm)) {
+            throw new IllegalArgumentException(algorithm + " can record at most " + maxSize(algorithm) + " elements");
+        }
+        switch (algorithm) {
+            case "Bubble Sort" -> bubbleSort(a, log);
+            case "Selection Sort" -> selectionSort(a, log);
+            case "Insertion Sort" -> insertionSort(a, log);
+            case "Merge Sort" -> mergeSort(a, new int[a.length], 0, a.length, log);
+            case "Quick Sort" -> quickSort(a, 0, a.length - 1, log);
+            case "Heap Sort" -> heapSort(a, log);
+            default -> throw new IllegalArgumentException(algorithm + " cannot be recorded");
+        }
+    }
+
+    private static void bubbleSort(int[] a, OperationLog log) {
+        for (int i = 0; i < a.length - 1; i++) {
+            for (int j = 0; j < a.length - i - 1; j++) {
+                if (log.compare(a, j, j + 1) > 0) {
+                    log.swap(a, j, j + 1);
+                }
+            }
+        }
+    }
+
+    private static void selectionSort(int[] a, OperationLog log) {
+        for (int i = 0; i < a.length - 1; i++) {
+            int minIdx = i;
+            for (int j = i + 1; j < a.length; j++) {
+                if (log.compare(a, j, minIdx) < 0) {
+                    minIdx = j;
+                }
+            }
+            if (minIdx != i) {
+                log.swap(a, i, minIdx);
+            }
+        }
+    }
+
+    // Shifts larger elements up one slot and writes the key once, as the visualizer does
+    private static void insertionSort(int[] a, OperationLog log) {
+        for (int i = 1; i < a.length; i++) {
+            int key = log.read(a, i);
+            int j = i - 1;
+            while (j >= 0 && log.compareWith(a, j, key) > 0) {
+                log.write(a, j + 1, log.read(a, j));
+                j--;
+            }
+            log.write(a, j + 1, key);
+        }
+    }
+
+    private static void mergeSort(int[] a, int[] buffer, int from, int to, OperationLog log) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid, log);
+        mergeSort(a, buffer, mid, to, log);
+        long phase = log.beginPhase();
+
+        log.copy(a, from, buffer, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            int left = log.read(buffer, i), right = log.read(buffer, j);
+            if (log.compareValue(left, right) <= 0) {
+                log.write(a, k++, left);
+                i++;
+            } else {
+                log.write(a, k++, right);
+                j++;
+            }
+        }
+        while (i < mid) {
+            log.write(a, k++, log.read(buffer, i++));
+        }
+        while (j < to) {
+            log.write(a, k++, log.read(buffer, j++));
+        }
+        log.endPhase("merge", from, to, phase);
+    }
+
+    // Lomuto partition around the last element, recursing into the smaller side
+    private static void quickSort(int[] a, int low, int high, OperationLog log) {
+        while (low < high) {
+            long phase = log.beginPhase();
+            int i = low - 1;
+            for (int j = low; j < high; j++) {
+                if (log.compare(a, j, high) < 0) {
+                    log.swap(a, ++i, j);
+                }
+            }
+            int pi = i + 1;
+            log.swap(a, pi, high);
+            log.endPhase("partition", low, high + 1, phase);
+            if (pi - low < high - pi) {
+                quickSort(a, low, pi - 1, log);
+                low = pi + 1;
+            } else {
+                quickSort(a, pi + 1, high, log);
+                high = pi - 1;
+            }
+        }
+    }
+
+    private static void heapSort(int[] a, OperationLog log) {
+        long phase = log.beginPhase();
+        for (int i = a.length / 2 - 1; i >= 0; i--) {
+            siftDown(a, i, a.length, log);
+        }
+        log.endPhase("heapify", 0, a.length, phase);
+        phase = log.beginPhase();
+        for (int end = a.length - 1; end > 0; end--) {
+            log.swap(a, 0, end);
+            siftDown(a, 0, end, log);
+        }
+        log.endPhase("extract", 0, a.length, phase);
+    }
+
+    private static void siftDown(int[] a, int i, int n, OperationLog log) {
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < n && log.compare(a, left, largest) > 0) largest = left;
+            if (right < n && log.compare(a, right, largest) > 0) largest = right;
+            if (largest == i) return;
+            log.swap(a, i, largest);
+            i = largest;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Parallel sample sort: oversample the input, pick buckets - 1 splitters, classify
+// every element into a bucket with per-chunk histograms, scatter the buckets into
+// place and sort each bucket independently on the pool. Each phase is timed on its
+// own so the cost of every step can be compared as the thread count grows.
+final class SampleSort {
+    enum Phase {
+        SAMPLING("Sampling"),
+        CLASSIFICATION("Classification"),
+        SCATTER("Scatter"),
+        LOCAL_SORT("Local sort");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    interface PhaseListener {
+        void phaseCompleted(Phase phase, long nanos) throws InterruptedException;
+    }
+
+    private static final int OVERSAMPLING = 16;
+    private static final int MAX_BUCKETS = 256;
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 12;
+
+    private final ForkJoinPool pool;
+    private final int bucketCount;
+    private final long seed;
+
+    private int[] splitters = new int[0];
+    private int[] bucketStarts = new int[0];
+    private final long[] phaseNanos = new long[Phase.values().length];
+
+    SampleSort(ForkJoinPool pool, long seed) {
+        this.pool = pool;
+        this.bucketCount = Math.min(MAX_BUCKETS, Math.max(1, pool.getParallelism()));
+        this.seed = seed;
+    }
+
+    int[] splitters() {
+        return splitters;
+    }
+
+    // Start offset of every bucket followed by the array length
+    int[] bucketStarts() {
+        return bucketStarts;
+    }
+
+    long phaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    void sort(int[] a, PhaseListener listener) throws InterruptedException {
+        int n = a.length;
+        int chunks = Math.max(1, Math.min(pool.getParallelism(), n / SEQUENTIAL_THRESHOLD));
+
+        long start = System.nanoTime();
+        splitters = selectSplitters(a);
+        finish(Phase.SAMPLING, start, listener);
+
+        start = System.nanoTime();
+        int buckets = splitters.length + 1;
+        byte[] oracle = new byte[n];
+        int[][] histograms = new int[chunks][];
+        pool.invoke(new ChunkTask(0, chunks, chunk -> {
+            int[] histogram = new int[buckets];
+            for (int i = chunkStart(chunk, chunks, n), end = chunkStart(chunk + 1, chunks, n); i < end; i++) {
+                int bucket = classify(a[i]);
+                oracle[i] = (byte) bucket;
+                histogram[bucket]++;
+            }
+            histograms[chunk] = histogram;
+        }));
+        finish(Phase.CLASSIFICATION, start, listener);
+
+        start = System.nanoTime();
+        // offsets[chunk][bucket] is where that chunk writes its first element of the bucket
+        int[][] offsets = new int[chunks][buckets];
+        int[] starts = new int[buckets + 1];
+        int position = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            starts[bucket] = position;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                offsets[chunk][bucket] = position;
+                position += histograms[chunk][bucket];
+            }
+        }
+        starts[buckets] = n;
+        int[] scattered = new int[n];
+        pool.invoke(new ChunkTask(0, chunks, chunk -> {
+            int[] next = offsets[chunk];
+            for (int i = chunkStart(chunk, chunks, n), end = chunkStart(chunk + 1, chunks, n); i < end; i++) {
+                scattered[next[oracle[i] & 0xFF]++] = a[i];
+            }
+        }));
+        System.arraycopy(scattered, 0, a, 0, n);
+        bucketStarts = starts;
+        finish(Phase.SCATTER, start, listener);
+
+        start = System.nanoTime();
+        pool.invoke(new ChunkTask(0, buckets, bucket -> Arrays.sort(a, starts[bucket], starts[bucket + 1])));
+        finish(Phase.LOCAL_SORT, start, listener);
+    }
+
+    private void finish(Phase phase, long start, PhaseListener listener) throws InterruptedException {
+        phaseNanos[phase.ordinal()] = System.nanoTime() - start;
+        if (listener != null) {
+            listener.phaseCompleted(phase, phaseNanos[phase.ordinal()]);
+        }
+    }
+
+    private int[] selectSplitters(int[] a) {
+        if (bucketCount == 1 || a.length < 2) return new int[0];
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] sample = new int[bucketCount * OVERSAMPLING];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = a[random.nextInt(a.length)];
+        }
+        Arrays.sort(sample);
+
+        // Equal splitters would only produce empty buckets, so duplicates are dropped
+        int[] picked = new int[bucketCount - 1];
+        int count = 0;
+        for (int i = 1; i < bucketCount; i++) {
+            int splitter = sample[i * OVERSAMPLING - 1];
+            if (count == 0 || picked[count - 1] != splitter) {
+                picked[count++] = splitter;
+            }
+        }
+        return Arrays.copyOf(picked, count);
+    }
+
+    // Index of the first splitter not less than value, i.e. the bucket holding it
+    private int classify(int value) {
+        int lo = 0, hi = splitters.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (splitters[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int chunkStart(int chunk, int chunks, int n) {
+        return (int) ((long) n * chunk / chunks);
+    }
+
+    private interface ChunkBody {
+        void run(int chunk);
+    }
+
+    // Runs body for every index in [from, to), splitting the range across the pool
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient ChunkBody body;
+
+        ChunkTask(int from, int to, ChunkBody body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.run(from);
+            } else if (to > from) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChunkTask(from, mid, body), new ChunkTask(mid, to, body));
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Lower-bound searches over a sorted int[]: each returns the first index whose value
+// is at least key, or the length when every value is below it. The probe consumer
+// sees every index a search compares against, in order, so the visualizer can
+// replay a query; NO_PROBES costs nothing once inlined. Eytzinger search runs on
+// the breadth-first layout from eytzinger() and returns a slot of that layout,
+// which ranks() maps back to a sorted index.
+final class SearchKernels {
+    enum Algorithm {
+        BINARY("Binary"),
+        BRANCHLESS("Branchless binary"),
+        INTERPOLATION("Interpolation"),
+        EXPONENTIAL("Exponential"),
+        EYTZINGER("Eytzinger");
+
+        private final String label;
+
+        Algorithm(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    static final IntConsumer NO_PROBES = index -> { };
+
+    // Queries advanced in lockstep by the batched searches, so that many independent
+    // cache misses are in flight at once instead of one per dependent step
+    static final int BATCH_WIDTH = 16;
+
+    private SearchKernels() {
+    }
+
+    static int binarySearch(int[] a, int key, IntConsumer probes) {
+        return binarySearch(a, 0, a.length, key, probes);
+    }
+
+    static int binarySearch(int[] a, int from, int to, int key, IntConsumer probes) {
+        int low = from, high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            probes.accept(mid);
+            if (a[mid] < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Halves a window of fixed-length steps; the comparison only picks the new base,
+    // which the JIT turns into a conditional move instead of a branch
+    static int branchlessSearch(int[] a, int key, IntConsumer probes) {
+        if (a.length == 0) return 0;
+        int base = 0;
+        for (int length = a.length; length > 1; ) {
+            int half = length >>> 1;
+            probes.accept(base + half);
+            base = a[base + half] < key ? base + half : base;
+            length -= half;
+        }
+        probes.accept(base);
+        return a[base] < key ? base + 1 : base;
+    }
+
+    // Guesses the position from the key's place between the window's end values, which
+    // takes about log log n probes on evenly spread values and up to n on skewed ones
+    static int interpolationSearch(int[] a, int key, IntConsumer probes) {
+        int low = 0, high = a.length - 1;
+        while (low <= high) {
+            probes.accept(low);
+            if (key <= a[low]) return low;
+            probes.accept(high);
+            if (key > a[high]) return high + 1;
+            int pos = low + (int) (((long) key - a[low]) * (high - low) / ((long) a[high] - a[low]));
+            probes.accept(pos);
+            if (a[pos] < key) low = pos + 1;
+            else high = pos - 1;
+        }
+        return low;
+    }
+
+    // Doubles a bound from the front until it passes key, then binary searches the last
+    // doubling; cheap for keys near the start
+    static int exponentialSearch(int[] a, int key, IntConsumer probes) {
+        int n = a.length;
+        long bound = 1;
+        while (bound <= n) {
+            probes.accept((int) bound - 1);
+            if (a[(int) bound - 1] >= key) break;
+            bound *= 2;
+        }
+        return binarySearch(a, (int) (bound / 2), (int) Math.min(bound - 1, n), key, probes);
+    }
+
+    // Walks down the implicit tree in slot k's children 2k and 2k + 1; the answer is the
+    // last slot where the walk went left, recovered by dropping the trailing right turns
+    // and that left turn from k. Returns 0 when every value is below key.
+    static int eytzingerSearch(int[] layout, int key, IntConsumer probes) {
+        int k = 1;
+        while (k < layout.length) {
+            probes.accept(k);
+            k = 2 * k + (layout[k] < key ? 1 : 0);
+        }
+        return k >>> Integer.numberOfTrailingZeros(~k) + 1;
+    }
+
+    // Sorted values in breadth-first order of a complete binary tree, from slot 1
+    static int[] eytzinger(int[] sorted) {
+        int[] layout = new int[sorted.length + 1];
+        int[] ranks = ranks(sorted.length);
+        for (int k = 1; k < layout.length; k++) {
+            layout[k] = sorted[ranks[k]];
+        }
+        return layout;
+    }
+
+    // Sorted index held by every slot of an n-element Eytzinger layout, from an
+    // in-order walk of the implicit tree; the recursion is only log n deep
+    static int[] ranks(int n) {
+        int[] ranks = new int[n + 1];
+        fillRanks(ranks, 1, 0);
+        return ranks;
+    }
+
+    private static int fillRanks(int[] ranks, long k, int rank) {
+        if (k >= ranks.length) return rank;
+        rank = fillRanks(ranks, 2 * k, rank);
+        ranks[(int) k] = rank++;
+        return fillRanks(ranks, 2 * k + 1, rank);
+    }
+
+    static int search(Algorithm algorithm, int[] a, int key, IntConsumer probes) {
+        return switch (algorithm) {
+            case BINARY -> binarySearch(a, key, probes);
+            case BRANCHLESS -> branchlessSearch(a, key, probes);
+            case INTERPOLATION -> interpolationSearch(a, key, probes);
+            case EXPONENTIAL -> exponentialSearch(a, key, probes);
+            case EYTZINGER -> eytzingerSearch(a, key, probes);
+        };
+    }
+
+    // Branchless search of every key into results; every query takes the same
+    // number of steps, so a batch moves through the array together
+    static void branchlessBatch(int[] a, int[] keys, int[] results) {
+        int n = a.length;
+        int[] bases = new int[BATCH_WIDTH];
+        for (int start = 0; start < keys.length; start += BATCH_WIDTH) {
+            int width = Math.min(BATCH_WIDTH, keys.length - start);
+            Arrays.fill(bases, 0);
+            for (int length = n; length > 1; ) {
+                int half = length >>> 1;
+                for (int q = 0; q < width; q++) {
+                    int base = bases[q];
+                    bases[q] = a[base + half] < keys[start + q] ? base + half : base;
+                }
+                length -= half;
+            }
+            for (int q = 0; q < width; q++) {
+                int base = bases[q];
+                results[start + q] = n == 0 ? 0 : a[base] < keys[start + q] ? base + 1 : base;
+            }
+        }
+    }
+
+    // Eytzinger search of a batch in lockstep; a query's walk ends one level early
+    // when it runs off the partial bottom row
+    static void eytzingerBatch(int[] layout, int[] keys, int[] results) {
+        int n = layout.length;
+        int[] slots = new int[BATCH_WIDTH];
+        for (int start = 0; start < keys.length; start += BATCH_WIDTH) {
+            int width = Math.min(BATCH_WIDTH, keys.length - start);
+            Arrays.fill(slots, 1);
+            for (boolean active = n > 1; active; ) {
+                active = false;
+                for (int q = 0; q < width; q++) {
+                    int k = slots[q];
+                    if (k < n) {
+                        slots[q] = 2 * k + (layout[k] < keys[start + q] ? 1 : 0);
+                        active = true;
+                    }
+                }
+            }
+            for (int q = 0; q < width; q++) {
+                int k = slots[q];
+                results[start + q] = k >>> Integer.numberOfTrailingZeros(~k) + 1;
+            }
+        }
+    }
+}
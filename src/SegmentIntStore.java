@@ -0,0 +1,51 @@
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+// IntStore in memory allocated outside the Java heap through the Foreign Function &
+// Memory API. The garbage collector never scans or moves it, and closing the store
+// releases the memory at once.
+final class SegmentIntStore implements IntStore, AutoCloseable {
+    // The layout stays in a static final so the JIT sees a constant var handle
+    private static final ValueLayout.OfInt LAYOUT = ValueLayout.JAVA_INT;
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final long length;
+
+    private SegmentIntStore(Arena arena, MemorySegment segment) {
+        this.arena = arena;
+        this.segment = segment;
+        this.length = segment.byteSize() / Integer.BYTES;
+    }
+
+    static SegmentIntStore allocate(long length) {
+        Arena arena = Arena.ofShared();
+        try {
+            return new SegmentIntStore(arena, arena.allocate(length * Integer.BYTES, Integer.BYTES));
+        } catch (RuntimeException | Error e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public int get(long index) {
+        return segment.getAtIndex(LAYOUT, index);
+    }
+
+    @Override
+    public void set(long index, int value) {
+        segment.setAtIndex(LAYOUT, index, value);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// In-place seeded shuffles of primitive arrays. Small arrays get a plain Fisher-Yates
+// pass; large ones use MergeShuffle: fixed-size blocks are shuffled in parallel and
+// then merged pairwise by coin flips, each merge also running in parallel. Block
+// sizes and generator splits do not depend on the core count, so a seed always
+// produces the same permutation.
+final class Shuffler {
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private Shuffler() {
+    }
+
+    static void shuffle(int[] a, long seed) {
+        shuffle(a, new SplittableRandom(seed));
+    }
+
+    static void shuffle(int[] a, SplittableRandom random) {
+        if (a.length < PARALLEL_THRESHOLD) {
+            fisherYates(a, 0, a.length, random);
+        } else {
+            mergeShuffle(a, random);
+        }
+    }
+
+    static void fisherYates(int[] a, int from, int to, SplittableRandom random) {
+        for (int i = to - 1; i > from; i--) {
+            swap(a, i, from + random.nextInt(i - from + 1));
+        }
+    }
+
+    private static void mergeShuffle(int[] a, SplittableRandom random) {
+        int blocks = (a.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        SplittableRandom[] blockRandoms = new SplittableRandom[blocks];
+        for (int block = 0; block < blocks; block++) {
+            blockRandoms[block] = random.split();
+        }
+        IntStream.range(0, blocks).parallel().forEach(block ->
+                fisherYates(a, block * BLOCK_SIZE, blockEnd(block, a.length), blockRandoms[block]));
+
+        for (long width = BLOCK_SIZE; width < a.length; width *= 2) {
+            long step = width;
+            int merges = (int) ((a.length + 2 * step - 1) / (2 * step));
+            SplittableRandom[] mergeRandoms = new SplittableRandom[merges];
+            for (int merge = 0; merge < merges; merge++) {
+                mergeRandoms[merge] = random.split();
+            }
+            IntStream.range(0, merges).parallel().forEach(merge -> {
+                long from = 2 * step * merge;
+                long mid = Math.min(a.length, from + step);
+                long to = Math.min(a.length, from + 2 * step);
+                merge(a, (int) from, (int) mid, (int) to, mergeRandoms[merge]);
+            });
+        }
+    }
+
+    // Interleaves two shuffled runs by coin flips; once either side runs out, the
+    // remainder is placed with Fisher-Yates insertions into the merged prefix
+    private static void merge(int[] a, int from, int mid, int to, SplittableRandom random) {
+        if (mid >= to) return;
+        int i = from, j = mid;
+        long bits = 0;
+        int bitsLeft = 0;
+        while (true) {
+            if (bitsLeft == 0) {
+                bits = random.nextLong();
+                bitsLeft = Long.SIZE;
+            }
+            boolean takeRight = (bits & 1) != 0;
+            bits >>>= 1;
+            bitsLeft--;
+
+            if (!takeRight) {
+                if (i == j) break;
+            } else {
+                if (j == to) break;
+                swap(a, i, j++);
+            }
+            i++;
+        }
+        for (; i < to; i++) {
+            swap(a, i, from + random.nextInt(i - from + 1));
+        }
+    }
+
+    private static int blockEnd(int block, int n) {
+        return (int) Math.min(n, (long) (block + 1) * BLOCK_SIZE);
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+}
@@ -0,0 +1,692 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// Command line benchmarks for the uninstrumented sorting kernels, run without the UI:
+//   java SortBenchmark sample-sort [size] [maxThreads]
+//   java SortBenchmark external-sort [size]
+//   java SortBenchmark generate [size]
+//   java SortBenchmark shuffle [size]
+//   java SortBenchmark offheap-sort [size]
+//   java SortBenchmark types [size]
+//   java SortBenchmark objects [size]
+//   java SortBenchmark heaps [maxSize]
+//   java SortBenchmark cache [size]
+//   java SortBenchmark search [maxSize] [queries]
+//   java SortBenchmark pathfind [side]
+//   java SortBenchmark verify [size]
+//   java SortBenchmark export [size] [png|gif|avi]
+//   java SortBenchmark trace [size] [csv|json]
+//   java SortBenchmark replay [size]
+//   java SortBenchmark jdk [size]
+//   java SortBenchmark matrix [maxSize] [parallel|serial]
+//   java SortBenchmark raster [size] [width] [height] [bars|dots|wheel|disparity]
+//   java --add-modules jdk.incubator.vector SortBenchmark vector-sort [size]
+public class SortBenchmark {
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+    private static final int RASTER_WARMUP_FRAMES = 100;
+
+    public static void main(String[] args) throws Exception {
+        String benchmark = args.length > 0 ? args[0] : "sample-sort";
+        long requested = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000;
+        int size = (int) Math.min(requested, Integer.MAX_VALUE - 8);
+
+        switch (benchmark) {
+            case "sample-sort" -> sampleSort(size,
+                    args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors());
+            case "external-sort" -> externalSort(size);
+            case "vector-sort" -> vectorSort(size);
+            case "generate" -> generate(size);
+            case "shuffle" -> shuffle(size);
+            case "offheap-sort" -> offHeapSort(requested);
+            case "types" -> elementTypes(size);
+            case "objects" -> objects(size);
+            case "heaps" -> heaps(size);
+            case "cache" -> cache(size);
+            case "pathfind" -> pathfind(args.length > 1 ? Integer.parseInt(args[1]) : 4096);
+            case "search" -> search(size, args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000);
+            case "verify" -> verify(size);
+            case "export" -> export(size, args.length > 2 ? args[2] : "png");
+            case "trace" -> trace(size, args.length > 2 ? args[2] : "csv");
+            case "replay" -> replay(size);
+            case "jdk" -> jdk(size);
+            case "matrix" -> matrix(args.length > 1 ? size : 1_000_000, args.length > 2 && args[2].equals("serial"));
+            case "raster" -> raster(size, args.length > 2 ? Integer.parseInt(args[2]) : 1920,
+                    args.length > 3 ? Integer.parseInt(args[3]) : 1080, args.length > 4 ? args[4] : "bars");
+            default -> System.err.println("Unknown benchmark: " + benchmark);
+        }
+    }
+
+    // Median time of every sample sort phase, doubling the thread count up to maxThreads
+    private static void sampleSort(int size, int maxThreads) throws InterruptedException {
+        int[] input = randomArray(size, 42);
+        SampleSort.Phase[] phases = SampleSort.Phase.values();
+
+        System.out.printf("Sample sort, n = %,d%n%8s", size, "threads");
+        for (SampleSort.Phase phase : phases) {
+            System.out.printf("%16s", phase);
+        }
+        System.out.printf("%16s%n", "Total");
+
+        for (int step = 1; ; step *= 2) {
+            int threads = Math.min(step, maxThreads);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long[][] nanos = new long[phases.length + 1][MEASURED_RUNS];
+            try {
+                for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+                    int[] a = input.clone();
+                    SampleSort sorter = new SampleSort(pool, run);
+                    sorter.sort(a, null);
+                    if (run < WARMUP_RUNS) continue;
+
+                    long total = 0;
+                    for (SampleSort.Phase phase : phases) {
+                        nanos[phase.ordinal()][run - WARMUP_RUNS] = sorter.phaseNanos(phase);
+                        total += sorter.phaseNanos(phase);
+                    }
+                    nanos[phases.length][run - WARMUP_RUNS] = total;
+                }
+            } finally {
+                pool.shutdown();
+            }
+
+            System.out.printf("%8d", threads);
+            for (long[] samples : nanos) {
+                System.out.printf("%13.2f ms", median(samples) / 1e6);
+            }
+            System.out.println();
+            if (threads == maxThreads) break;
+        }
+    }
+
+    // Writes size random ints to a temporary file and sorts it with the heap-sized defaults
+    private static void externalSort(int size) throws IOException, InterruptedException {
+        Path input = Files.createTempFile("algovis-input", ".bin");
+        Path output = Files.createTempFile("algovis-output", ".bin");
+        try {
+            SplittableRandom random = new SplittableRandom(42);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(input)))) {
+                for (int i = 0; i < size; i++) {
+                    out.writeInt(random.nextInt());
+                }
+            }
+
+            ExternalSort sorter = ExternalSort.forHeap(0, null);
+            sorter.sort(input, output);
+            System.out.printf("External sort, n = %,d: %.2f s, %d merge passes, %,d blocks read, %,d written, %.1f MB/s%n",
+                    size, sorter.elapsedNanos() / 1e9, sorter.pass(), sorter.blocksRead(), sorter.blocksWritten(),
+                    sorter.throughputBytesPerSecond() / 1e6);
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    // Vector API partition and quicksort against the scalar kernels on random ints
+    private static void vectorSort(int size) {
+        int[] input = randomArray(size, 42);
+        int pivot = VectorSort.medianOfThree(input, 0, size);
+        System.out.printf("Vector kernels, n = %,d, %d lanes%s%n", size, VectorSort.lanes(),
+                VectorSort.isVectorized() ? "" : " (scalar fallback)");
+
+        report("Partition, scalar", input, a -> SortKernels.partition(a, 0, a.length, pivot));
+        report("Partition, vector", input, a -> VectorSort.partition(a, 0, a.length, pivot));
+        report("Quick sort, scalar (Lomuto)", input, a -> SortKernels.quickSort(a, 0, a.length - 1));
+        report("Quick sort, vector", input, VectorSort::sort);
+        report("Arrays.sort", input, Arrays::sort);
+    }
+
+    // Time to generate every input distribution with the common pool
+    private static void generate(int size) {
+        System.out.printf("Input generation, n = %,d, %d cores%n", size, Runtime.getRuntime().availableProcessors());
+        for (InputGenerator.Distribution distribution : InputGenerator.Distribution.values()) {
+            long[] samples = new long[MEASURED_RUNS];
+            for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+                long start = System.nanoTime();
+                InputGenerator.generate(distribution, size, run);
+                if (run >= WARMUP_RUNS) {
+                    samples[run - WARMUP_RUNS] = System.nanoTime() - start;
+                }
+            }
+            System.out.printf("%-30s%12.2f ms%n", distribution, median(samples) / 1e6);
+        }
+    }
+
+    // The old boxed List<Integer> round trip against the in-place shuffles
+    private static void shuffle(int size) {
+        int[] input = InputGenerator.generate(InputGenerator.Distribution.REVERSED, size, 0);
+        System.out.printf("Shuffle, n = %,d%n", size);
+        report("Boxed Collections.shuffle", input, a -> {
+            List<Integer> list = new ArrayList<>(Arrays.stream(a).boxed().toList());
+            Collections.shuffle(list);
+            list.stream().mapToInt(Integer::intValue).toArray();
+        });
+        report("Fisher-Yates", input, a -> Shuffler.fisherYates(a, 0, a.length, new SplittableRandom(42)));
+        report("Shuffler", input, a -> Shuffler.shuffle(a, 42));
+    }
+
+    // The IntStore quick sort over a heap int[] and over an off-heap segment
+    private static void offHeapSort(long size) {
+        System.out.printf("IntStore quick sort, n = %,d%n", size);
+        if (size <= Integer.MAX_VALUE - 8) {
+            int[] input = randomArray((int) size, 42);
+            report("Heap int[]", input, a -> StoreSorts.quickSort(new HeapIntStore(a)));
+        }
+        try (SegmentIntStore store = SegmentIntStore.allocate(size)) {
+            long[] samples = new long[MEASURED_RUNS];
+            boolean sorted = true;
+            for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+                SplittableRandom random = new SplittableRandom(42);
+                for (long i = 0; i < size; i++) {
+                    store.set(i, random.nextInt());
+                }
+                long start = System.nanoTime();
+                StoreSorts.quickSort(store);
+                long nanos = System.nanoTime() - start;
+                sorted &= StoreSorts.isSorted(store);
+                if (run >= WARMUP_RUNS) {
+                    samples[run - WARMUP_RUNS] = nanos;
+                }
+            }
+            System.out.printf("%-30s%12.2f ms (sorted: %b)%n", "Off-heap segment", median(samples) / 1e6, sorted);
+        }
+    }
+
+    private static final int QUADRATIC_SIZE_LIMIT = 20_000;
+
+    // Every specialized kernel against its int counterpart on random data of the same
+    // length; the quadratic sorts are capped at QUADRATIC_SIZE_LIMIT elements
+    private static void elementTypes(int size) {
+        System.out.printf("Element type specializations, n = %,d%n%-16s%14s%14s%14s%14s%n",
+                size, "", "int", "long", "double", "key+index");
+        typeRow("Bubble Sort", Math.min(size, QUADRATIC_SIZE_LIMIT),
+                SortKernels::bubbleSort, LongSortKernels::bubbleSort, DoubleSortKernels::bubbleSort);
+        typeRow("Selection Sort", Math.min(size, QUADRATIC_SIZE_LIMIT),
+                SortKernels::selectionSort, LongSortKernels::selectionSort, DoubleSortKernels::selectionSort);
+        typeRow("Insertion Sort", Math.min(size, QUADRATIC_SIZE_LIMIT),
+                SortKernels::insertionSort, LongSortKernels::insertionSort, DoubleSortKernels::insertionSort);
+        typeRow("Merge Sort", size, SortKernels::mergeSort, LongSortKernels::mergeSort, DoubleSortKernels::mergeSort);
+        typeRow("Quick Sort", size, SortKernels::quickSort, LongSortKernels::quickSort, DoubleSortKernels::quickSort);
+        typeRow("Heap Sort", size, SortKernels::heapSort, LongSortKernels::heapSort, DoubleSortKernels::heapSort);
+    }
+
+    private static void typeRow(String name, int size, Consumer<int[]> intKernel,
+                                Consumer<long[]> longKernel, Consumer<double[]> doubleKernel) {
+        int[] ints = randomArray(size, 42);
+        long[] longs = new SplittableRandom(42).longs(size).toArray();
+        double[] doubles = new SplittableRandom(42).doubles(size).toArray();
+        long[] records = KeyIndex.pack(ints);
+
+        System.out.printf("%-16s%11.2f ms%11.2f ms%11.2f ms%11.2f ms%n", name,
+                medianMillis(() -> ints.clone(), intKernel),
+                medianMillis(() -> longs.clone(), longKernel),
+                medianMillis(() -> doubles.clone(), doubleKernel),
+                medianMillis(() -> records.clone(), longKernel));
+    }
+
+    // Comparator sorts against KeyCache's decorate-sort-undecorate, per algorithm and workload
+    private static void objects(int size) {
+        for (ObjectWorkloads.Workload<?> workload : List.of(ObjectWorkloads.words(size, 42), ObjectWorkloads.employees(size, 42))) {
+            System.out.printf("%s, n = %,d%n%-16s%14s%14s%14s%14s%14s%n", workload.name(), size,
+                    "", "compares", "comparator", "sort", "cached cmp", "cached sort");
+            int quadraticSize = Math.min(size, QUADRATIC_SIZE_LIMIT);
+            objectRow("Insertion Sort", workload, quadraticSize, ObjectSortKernels::insertionSort, LongSortKernels::insertionSort);
+            objectRow("Merge Sort", workload, size, ObjectSortKernels::mergeSort, LongSortKernels::mergeSort);
+            objectRow("Quick Sort", workload, size, ObjectSortKernels::quickSort, LongSortKernels::quickSort);
+            objectRow("Heap Sort", workload, size, ObjectSortKernels::heapSort, LongSortKernels::heapSort);
+        }
+    }
+
+    // Comparator calls and the time inside them come from one timed run; the sort
+    // times are medians of untimed runs
+    private static <T> void objectRow(String name, ObjectWorkloads.Workload<T> workload, int size,
+                                      ObjectSortKernels.Kernel kernel, Consumer<long[]> longKernel) {
+        T[] input = Arrays.copyOf(workload.input(), size);
+        CountingComparator<T> timed = new CountingComparator<>(workload.comparator(), true);
+        kernel.sort(input.clone(), 0, size, timed);
+        double sortMillis = medianMillis(input::clone, a -> kernel.sort(a, 0, size, workload.comparator()));
+
+        CountingComparator<T> cachedCalls = new CountingComparator<>(workload.comparator(), false);
+        T[] cached = input.clone();
+        KeyCache.sort(cached, workload.key(), cachedCalls, longKernel, kernel);
+        double cachedMillis = medianMillis(input::clone,
+                a -> KeyCache.sort(a, workload.key(), workload.comparator(), longKernel, kernel));
+
+        for (int i = 1; i < size; i++) {
+            if (workload.comparator().compare(cached[i - 1], cached[i]) > 0) {
+                throw new IllegalStateException(name + " with cached keys left " + workload.name() + " out of order at " + i);
+            }
+        }
+        System.out.printf("%-16s%14d%11.2f ms%11.2f ms%14d%11.2f ms%n", name, timed.calls(), timed.nanos() / 1e6,
+                sortMillis, cachedCalls.calls(), cachedMillis);
+    }
+
+    // Heap sort variants on random ints from 100,000 elements, well inside L2, up to
+    // maxSize by factors of ten: median time and comparisons per element
+    private static void heaps(int maxSize) {
+        List<String> names = List.of("Recursive", "Iterative", "Bottom-up", "4-ary", "8-ary");
+        List<ToLongFunction<int[]>> kernels = List.of(HeapSorts::recursive, HeapSorts::iterative,
+                HeapSorts::bottomUp, a -> HeapSorts.dAry(a, 4), a -> HeapSorts.dAry(a, 8));
+        System.out.printf("Heap sort variants, ms (comparisons / n)%n%12s", "n");
+        for (String name : names) {
+            System.out.printf("%22s", name);
+        }
+        System.out.println();
+
+        for (long size = Math.min(100_000, maxSize); size <= maxSize; size *= 10) {
+            int n = (int) size;
+            int[] input = randomArray(n, 42);
+            System.out.printf("%,12d", n);
+            for (int k = 0; k < kernels.size(); k++) {
+                ToLongFunction<int[]> kernel = kernels.get(k);
+                int[] a = input.clone();
+                long comparisons = kernel.applyAsLong(a);
+                for (int i = 1; i < n; i++) {
+                    if (a[i - 1] > a[i]) {
+                        throw new IllegalStateException(names.get(k) + " heap sort left the array out of order at " + i);
+                    }
+                }
+                double millis = medianMillis(input::clone, kernel::applyAsLong);
+                System.out.printf("%13.2f (%5.1f)", millis, (double) comparisons / n);
+            }
+            System.out.println();
+        }
+    }
+
+    // Simulated cache behaviour of the recorded quick, heap and merge sorts on random
+    // ints, next to the measured time of the matching SortKernels kernel
+    private static void cache(int size) {
+        int[] input = randomArray(size, 42);
+        System.out.printf("Simulated caches, n = %,d%n%-12s%12s%10s%10s%10s%10s%12s%14s%12s%n", size, "",
+                "accesses/n", "L1 miss", "L2 miss", "L3 miss", "TLB miss", "memory/n", "cycles/n", "measured");
+        cacheRow("Quick Sort", input, SortKernels::quickSort);
+        cacheRow("Heap Sort", input, SortKernels::heapSort);
+        cacheRow("Merge Sort", input, SortKernels::mergeSort);
+    }
+
+    private static void cacheRow(String name, int[] input, Consumer<int[]> kernel) {
+        CacheSimulator cache = CacheSimulator.typical(true);
+        RecordedSorts.sort(name, input.clone(), new OperationLog(cache));
+        int n = input.length;
+        System.out.printf("%-12s%12.1f", name, (double) cache.accesses() / n);
+        for (CacheSimulator.Level level : cache.levels()) {
+            System.out.printf("%9.2f%%", level.missRate() * 100);
+        }
+        System.out.printf("%9.3f%%%12.2f%14.1f%9.2f ms%n", cache.tlb().missRate() * 100,
+                (double) cache.memoryAccesses() / n, (double) cache.cycles() / n, medianMillis(input::clone, kernel));
+    }
+
+    // Lower-bound queries per second of every search, one at a time and batched, from a
+    // million elements up to maxSize by factors of ten
+    private static void search(int maxSize, int queries) {
+        SearchKernels.Algorithm[] algorithms = SearchKernels.Algorithm.values();
+        System.out.printf("Search throughput, %,d random queries, Mq/s%n%12s", queries, "n");
+        for (SearchKernels.Algorithm algorithm : algorithms) {
+            System.out.printf("%20s", algorithm);
+        }
+        System.out.printf("%20s%20s%n", "Branchless batch", "Eytzinger batch");
+
+        for (long size = Math.min(1_000_000, maxSize); size <= maxSize; size *= 10) {
+            int n = (int) size;
+            int[] sorted = InputGenerator.generate(InputGenerator.Distribution.UNIFORM, n, 42);
+            Arrays.parallelSort(sorted);
+            int[] layout = SearchKernels.eytzinger(sorted);
+            int[] keys = new SplittableRandom(7).ints(queries, 1, n + 1).toArray();
+            int[] results = new int[queries];
+
+            System.out.printf("%,12d", n);
+            for (SearchKernels.Algorithm algorithm : algorithms) {
+                int[] haystack = algorithm == SearchKernels.Algorithm.EYTZINGER ? layout : sorted;
+                double millis = medianMillis(() -> keys, k -> {
+                    for (int q = 0; q < k.length; q++) {
+                        results[q] = SearchKernels.search(algorithm, haystack, k[q], SearchKernels.NO_PROBES);
+                    }
+                });
+                System.out.printf("%20.2f", queries / millis / 1e3);
+            }
+            System.out.printf("%20.2f", queries / medianMillis(() -> keys, k -> SearchKernels.branchlessBatch(sorted, k, results)) / 1e3);
+            System.out.printf("%20.2f%n", queries / medianMillis(() -> keys, k -> SearchKernels.eytzingerBatch(layout, k, results)) / 1e3);
+        }
+    }
+
+    // Corner-to-corner searches on a random side x side grid, against Dijkstra on a
+    // PriorityQueue of node objects with lazy deletion
+    private static void pathfind(int side) throws InterruptedException {
+        Grid grid = Grid.random(side, side, 0.25, 9, 42);
+        int goal = grid.cells() - 1;
+        System.out.printf("Pathfinding, %d x %d grid%n%-14s%-14s%14s%14s%14s%n", side, side,
+                "", "queue", "expanded", "cost", "time");
+        for (Pathfinder.Algorithm algorithm : Pathfinder.Algorithm.values()) {
+            for (Pathfinder.Queue queue : Pathfinder.Queue.values()) {
+                if (algorithm == Pathfinder.Algorithm.BFS && queue != Pathfinder.Queue.BINARY_HEAP) continue;
+                Pathfinder finder = new Pathfinder(grid, algorithm, queue, Integer.MAX_VALUE, f -> { });
+                double millis = medianMillis(() -> finder, f -> {
+                    try {
+                        f.run(0, goal);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                System.out.printf("%-14s%-14s%,14d%,14d%11.2f ms%n", algorithm,
+                        algorithm == Pathfinder.Algorithm.BFS ? "FIFO" : queue, finder.expanded(), finder.pathCost(), millis);
+            }
+        }
+        long[] cost = new long[1];
+        double millis = medianMillis(() -> grid, g -> cost[0] = objectDijkstra(g, 0, goal));
+        System.out.printf("%-14s%-14s%14s%,14d%11.2f ms%n", "Dijkstra", "PriorityQueue", "", cost[0], millis);
+    }
+
+    private record Node(int cell, int distance) {
+    }
+
+    private static long objectDijkstra(Grid grid, int start, int goal) {
+        int[] distances = new int[grid.cells()];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        PriorityQueue<Node> open = new PriorityQueue<>(Comparator.comparingInt(Node::distance));
+        distances[start] = 0;
+        open.add(new Node(start, 0));
+        int width = grid.width();
+        while (!open.isEmpty()) {
+            Node node = open.poll();
+            if (node.distance() > distances[node.cell()]) continue;
+            if (node.cell() == goal) return node.distance();
+            int x = node.cell() % width;
+            for (int neighbour : new int[] {node.cell() - width, x + 1 < width ? node.cell() + 1 : -1,
+                    node.cell() + width, x > 0 ? node.cell() - 1 : -1}) {
+                if (neighbour < 0 || neighbour >= grid.cells() || grid.isWall(neighbour)) continue;
+                int next = node.distance() + grid.weight(neighbour);
+                if (next < distances[neighbour]) {
+                    distances[neighbour] = next;
+                    open.add(new Node(neighbour, next));
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static <T> double medianMillis(Supplier<T> input, Consumer<T> kernel) {
+        long[] samples = new long[MEASURED_RUNS];
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            T a = input.get();
+            long start = System.nanoTime();
+            kernel.accept(a);
+            long nanos = System.nanoTime() - start;
+            if (run >= WARMUP_RUNS) {
+                samples[run - WARMUP_RUNS] = nanos;
+            }
+        }
+        return median(samples) / 1e6;
+    }
+
+    // Pixel-buffer frame time of one view, without the upload, doubling the raster
+    // threads up to the core count
+    private static void raster(int size, int width, int height, String viewName) {
+        int[] a = InputGenerator.generate(InputGenerator.Distribution.SHUFFLED, size, 42);
+        PixelBufferView.View view = switch (viewName) {
+            case "bars" -> PixelBufferView.View.BARS;
+            case "dots" -> PixelBufferView.View.DOTS;
+            case "wheel" -> PixelBufferView.View.COLOR_WHEEL;
+            case "disparity" -> PixelBufferView.View.DISPARITY;
+            default -> throw new IllegalArgumentException("Unknown view: " + viewName);
+        };
+        System.out.printf("Pixel-buffer raster (%s), n = %,d, %d x %d%n", view, size, width, height);
+        for (int threads = 1; ; threads *= 2) {
+            int rasterThreads = Math.min(threads, Runtime.getRuntime().availableProcessors());
+            PixelBufferView pixels = new PixelBufferView(width, height, height - 50, rasterThreads);
+            double millis;
+            try {
+                // Frames are cheap, so give the JIT far more of them than the usual warmup
+                for (int frame = 0; frame < RASTER_WARMUP_FRAMES; frame++) {
+                    rasterFrame(pixels, view, a);
+                }
+                millis = medianMillis(() -> a, frame -> rasterFrame(pixels, view, frame));
+            } finally {
+                pixels.close();
+            }
+            System.out.printf("%8d threads %10.2f ms%n", rasterThreads, millis);
+            if (rasterThreads == Runtime.getRuntime().availableProcessors()) break;
+        }
+    }
+
+    private static void rasterFrame(PixelBufferView pixels, PixelBufferView.View view, int[] a) {
+        int last = a.length - 1;
+        switch (view) {
+            case BARS -> pixels.rasterize(a, 0, last, 0xFFFF0000, 0, 0, 0xFFADD8E6, 0xFFDEEFF5, 0xFFDDA0DD);
+            case DOTS -> pixels.dots(a, 0, last, 0xFFFF0000, 0, 0, 0xFFDDA0DD);
+            case COLOR_WHEEL -> pixels.colorWheel(a, 0, last, 0xFFFF0000);
+            case DISPARITY -> pixels.disparity(a, 0, last, 0xFFFF0000, 0, 0, 0xFFDDA0DD);
+        }
+    }
+
+    // Streams a traced merge sort to a temporary file, with the heap in use afterwards to show that the trace is not kept in memory
+    private static void trace(int size, String extension) throws IOException {
+        int[] input = InputGenerator.generate(InputGenerator.Distribution.SHUFFLED, size, 42);
+
+        Path out = Files.createTempFile("trace", "." + extension);
+        try {
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+            long start = System.nanoTime();
+            TraceExporter exporter = new TraceExporter(out, TraceExporter.Format.forFile(out), "Merge Sort");
+            try (exporter) {
+                RecordedSorts.sort("Merge Sort", input.clone(), new OperationLog(exporter));
+            }
+            long nanos = System.nanoTime() - start;
+            System.gc();
+            long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+            System.out.printf("Merge sort trace, n = %,d: %,d events, %.1f MB in %.2f ms (%.0f MB/s, %.1f M events/s)%n",
+                    size, exporter.events(), exporter.bytesWritten() / 1e6, nanos / 1e6,
+                    exporter.bytesWritten() * 1e3 / nanos, exporter.events() * 1e3 / nanos);
+            System.out.printf("Heap in use %+.1f MB after tracing%n", (heapAfter - heapBefore) / 1e6);
+        } finally {
+            Files.deleteIfExists(out);
+        }
+    }
+
+    // Writes a heap sort as a binary trace, then times opening it, replaying it to the
+    // end and seeking to random positions, and checks the replay ends sorted
+    private static void replay(int size) throws IOException {
+        int[] input = InputGenerator.generate(InputGenerator.Distribution.SHUFFLED, size, 42);
+        Path out = Files.createTempFile("trace", "." + TraceFile.EXTENSION);
+        try {
+            long start = System.nanoTime();
+            try (TraceFile.Writer writer = new TraceFile.Writer(out, input)) {
+                RecordedSorts.sort("Heap Sort", input.clone(), new OperationLog(writer));
+            }
+            System.out.printf("Heap sort trace, n = %,d: %.1f MB written in %.2f ms%n",
+                    size, Files.size(out) / 1e6, (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            try (TraceFile trace = TraceFile.open(out)) {
+                long opened = System.nanoTime();
+                TraceReplayer replayer = new TraceReplayer(trace, 256L << 20);
+                long loaded = System.nanoTime();
+                System.out.printf("Opened %,d operations in %.3f ms, initial array read in %.2f ms%n",
+                        trace.operations(), (opened - start) / 1e6, (loaded - opened) / 1e6);
+
+                replayer.step(Long.MAX_VALUE);
+                long nanos = System.nanoTime() - loaded;
+                System.out.printf("Replayed to the end in %.2f ms (%.1f M ops/s), sorted: %b%n",
+                        nanos / 1e6, trace.operations() * 1e3 / nanos, SortVerifier.firstUnsorted(replayer.array()) < 0);
+
+                SplittableRandom random = new SplittableRandom(7);
+                long[] samples = new long[MEASURED_RUNS * 4];
+                for (int k = 0; k < samples.length; k++) {
+                    long target = random.nextLong(trace.operations() + 1);
+                    long seekStart = System.nanoTime();
+                    replayer.seek(target);
+                    samples[k] = System.nanoTime() - seekStart;
+                }
+                System.out.printf("Random seeks: median %.2f ms, worst %.2f ms%n",
+                        median(samples) / 1e6, Arrays.stream(samples).max().getAsLong() / 1e6);
+            }
+        } finally {
+            Files.deleteIfExists(out);
+        }
+    }
+
+    // Records every JDK sort to a trace file and checks that replaying it ends sorted,
+    // then prints them beside the hand-written sorts
+    private static void jdk(int size) throws IOException, InterruptedException {
+        int[] input = InputGenerator.generate(InputGenerator.Distribution.SHUFFLED, Math.min(size, JdkSorts.MAX_SIZE), 42);
+        System.out.printf("JDK sorts, n = %,d%n", input.length);
+        for (JdkSorts.Sort sort : JdkSorts.Sort.values()) {
+            Path out = Files.createTempFile("jdk-sort", "." + TraceFile.EXTENSION);
+            try {
+                long start = System.nanoTime();
+                long operations;
+                try (TraceFile.Writer writer = new TraceFile.Writer(out, input)) {
+                    JdkSorts.record(sort, input, writer);
+                    operations = writer.operations();
+                }
+                long nanos = System.nanoTime() - start;
+                boolean sorted;
+                try (TraceFile trace = TraceFile.open(out)) {
+                    TraceReplayer replayer = new TraceReplayer(trace, 0);
+                    replayer.step(Long.MAX_VALUE);
+                    sorted = SortVerifier.firstUnsorted(replayer.array()) < 0;
+                }
+                System.out.printf("%-30s%,15d operations recorded in %.2f ms, replay sorted: %b%n",
+                        sort, operations, nanos / 1e6, sorted);
+            } finally {
+                Files.deleteIfExists(out);
+            }
+        }
+        System.out.println();
+        System.out.print(JdkSorts.format(JdkSorts.sideBySide(input)));
+    }
+
+    // Every experiment matrix algorithm on shuffled input from 1,000 elements up to
+    // maxSize, two sizes per decade, with median times and the fitted exponents
+    private static void matrix(int maxSize, boolean serial) throws InterruptedException {
+        int[] sizes = ExperimentMatrix.geometricSizes(1_000, Math.max(1_000, maxSize), 2);
+        List<ExperimentMatrix.Algorithm> algorithms = List.of(ExperimentMatrix.Algorithm.values());
+        int parallelism = serial ? 1 : Runtime.getRuntime().availableProcessors();
+        ExperimentMatrix matrix = new ExperimentMatrix(algorithms, List.of(InputGenerator.Distribution.SHUFFLED),
+                sizes, 3, 42, parallelism, 10_000_000_000L);
+        Map<ExperimentMatrix.Algorithm, Map<Integer, List<Long>>> times = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        matrix.run(new ExperimentMatrix.Listener() {
+            @Override
+            public void measured(ExperimentMatrix.Measurement measurement) {
+                if (!measurement.sorted()) {
+                    System.out.println("Not sorted: " + measurement.cell());
+                }
+                times.computeIfAbsent(measurement.cell().algorithm(), a -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(measurement.cell().size(), n -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(measurement.nanos());
+            }
+
+            @Override
+            public void skipped(ExperimentMatrix.Cell cell, String reason) {
+            }
+        });
+
+        System.out.printf("Experiment matrix, %,d cells on %d threads in %.1f s, median ms%n%-24s",
+                matrix.cells(), parallelism, (System.nanoTime() - start) / 1e9, "");
+        for (int size : sizes) {
+            System.out.printf("%12s", String.format("%,d", size));
+        }
+        System.out.printf("%10s%n", "exponent");
+        for (ExperimentMatrix.Algorithm algorithm : algorithms) {
+            Map<Integer, Long> medians = new TreeMap<>();
+            times.getOrDefault(algorithm, Map.of()).forEach((size, samples) ->
+                    medians.put(size, (long) median(samples.stream().mapToLong(Long::longValue).toArray())));
+            System.out.printf("%-24s", algorithm);
+            for (int size : sizes) {
+                Long nanos = medians.get(size);
+                System.out.printf("%12s", nanos == null ? "-" : String.format("%.3f", nanos / 1e6));
+            }
+            System.out.printf("%10.2f%n", ExperimentMatrix.fitExponent(medians));
+        }
+    }
+
+    // Records a merge sort and renders a one-minute 60 fps video of it, timing each stage
+    private static void export(int size, String extension) throws IOException, InterruptedException {
+        int[] input = InputGenerator.generate(InputGenerator.Distribution.SHUFFLED, size, 42);
+        OperationLog log = new OperationLog();
+        long start = System.nanoTime();
+        RecordedSorts.sort("Merge Sort", input.clone(), log);
+        long recorded = System.nanoTime();
+
+        Path out = Files.createTempFile("sort", "." + extension);
+        VideoExporter.Format format = VideoExporter.Format.forFile(out);
+        new VideoExporter(800, 400, 60, Runtime.getRuntime().availableProcessors())
+                .export(input, log, 60 * 60, format, out, null);
+        long exported = System.nanoTime();
+
+        System.out.printf("%s of merge sort, n = %,d, %,d operations: record %.0f ms, export %.0f ms, %,d KB at %s%n",
+                format, size, log.size(), (recorded - start) / 1e6, (exported - recorded) / 1e6,
+                Files.size(out) / 1024, out);
+    }
+
+    // Verifier cost on sorted int output and on stably sorted key+index records
+    private static void verify(int size) {
+        int[] input = InputGenerator.generate(InputGenerator.Distribution.SHUFFLED, size, 42);
+        SortVerifier.Fingerprint fingerprint = SortVerifier.fingerprint(input);
+        int[] sorted = input.clone();
+        Arrays.parallelSort(sorted);
+
+        long[] records = KeyIndex.pack(InputGenerator.generate(InputGenerator.Distribution.FEW_UNIQUE, size, 42));
+        SortVerifier.Fingerprint recordFingerprint = SortVerifier.fingerprint(records);
+        long[] sortedRecords = records.clone();
+        Arrays.parallelSort(sortedRecords);
+
+        System.out.printf("Verifier, n = %,d, %d cores%n", size, Runtime.getRuntime().availableProcessors());
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            SortVerifier.Result result = SortVerifier.verify(sorted, fingerprint);
+            SortVerifier.Result recordResult = SortVerifier.verifyRecords(sortedRecords, recordFingerprint);
+            if (run >= WARMUP_RUNS) {
+                System.out.printf("int: %s in %.2f ms | records: %s in %.2f ms%n",
+                        result.describe(), result.nanos() / 1e6, recordResult.describe(), recordResult.nanos() / 1e6);
+            }
+        }
+    }
+
+    private interface Kernel {
+        void run(int[] a);
+    }
+
+    // Median wall time of a kernel over fresh copies of the input
+    private static void report(String name, int[] input, Kernel kernel) {
+        long[] samples = new long[MEASURED_RUNS];
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            int[] a = input.clone();
+            long start = System.nanoTime();
+            kernel.run(a);
+            long nanos = System.nanoTime() - start;
+            if (run >= WARMUP_RUNS) {
+                samples[run - WARMUP_RUNS] = nanos;
+            }
+        }
+        System.out.printf("%-30s%12.2f ms%n", name, median(samples) / 1e6);
+    }
+
+    private static int[] randomArray(int size, long seed) {
+        return new SplittableRandom(seed).ints(size).toArray();
+    }
+
+    private static double median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.function.BooleanSupplier;
+
+// Uninstrumented versions of the visualizer's sorts, with no drawing, counting or
+// delays, for benchmarks and for the faster kernels to fall back on.
+final class SortKernels {
+    static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final BooleanSupplier NEVER = () -> false;
+
+    private SortKernels() {
+    }
+
+    static void bubbleSort(int[] a) {
+        bubbleSort(a, NEVER);
+    }
+
+    // The quadratic sorts can also be stopped: stop is checked once per pass, and a
+    // stopped sort leaves a partly sorted
+    static void bubbleSort(int[] a, BooleanSupplier stop) {
+        for (int i = 0; i < a.length - 1 && !stop.getAsBoolean(); i++) {
+            for (int j = 0; j < a.length - i - 1; j++) {
+                if (a[j] > a[j + 1]) {
+                    swap(a, j, j + 1);
+                }
+            }
+        }
+    }
+
+    static void selectionSort(int[] a) {
+        selectionSort(a, NEVER);
+    }
+
+    static void selectionSort(int[] a, BooleanSupplier stop) {
+        for (int i = 0; i < a.length - 1 && !stop.getAsBoolean(); i++) {
+            int minIdx = i;
+            for (int j = i + 1; j < a.length; j++) {
+                if (a[j] < a[minIdx]) {
+                    minIdx = j;
+                }
+            }
+            swap(a, i, minIdx);
+        }
+    }
+
+    static void insertionSort(int[] a) {
+        insertionSort(a, 0, a.length);
+    }
+
+    static void insertionSort(int[] a, BooleanSupplier stop) {
+        for (int i = 1; i < a.length && !stop.getAsBoolean(); i++) {
+            insert(a, 0, i);
+        }
+    }
+
+    // Top-down merge sort like AlgorithmVisualizer.mergeSort, sharing one buffer
+    static void mergeSort(int[] a) {
+        mergeSort(a, new int[a.length], 0, a.length);
+    }
+
+    private static void mergeSort(int[] a, int[] buffer, int from, int to) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid);
+        mergeSort(a, buffer, mid, to);
+        if (a[mid - 1] <= a[mid]) return;
+
+        System.arraycopy(a, from, buffer, from, mid - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            a[k++] = buffer[i] <= a[j] ? buffer[i++] : a[j++];
+        }
+        System.arraycopy(buffer, i, a, k, mid - i);
+    }
+
+    static void quickSort(int[] a) {
+        quickSort(a, 0, a.length - 1);
+    }
+
+    // Same recursion and Lomuto partition as AlgorithmVisualizer.quickSort
+    static void quickSort(int[] a, int low, int high) {
+        while (low < high) {
+            int pi = lomutoPartition(a, low, high);
+            if (pi - low < high - pi) {
+                quickSort(a, low, pi - 1);
+                low = pi + 1;
+            } else {
+                quickSort(a, pi + 1, high);
+                high = pi - 1;
+            }
+        }
+    }
+
+    static int lomutoPartition(int[] a, int low, int high) {
+        int pivot = a[high];
+        int i = low - 1;
+        for (int j = low; j < high; j++) {
+            if (a[j] < pivot) {
+                i++;
+                swap(a, i, j);
+            }
+        }
+        swap(a, i + 1, high);
+        return i + 1;
+    }
+
+    static void heapSort(int[] a) {
+        int n = a.length;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, 0, end);
+            siftDown(a, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] a, int i, int n) {
+        int value = a[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) break;
+            if (child + 1 < n && a[child + 1] > a[child]) child++;
+            if (a[child] <= value) break;
+            a[i] = a[child];
+            i = child;
+        }
+        a[i] = value;
+    }
+
+    // Moves everything below pivot to the front of [from, to) and returns where the rest starts
+    static int partition(int[] a, int from, int to, int pivot) {
+        int i = from, j = to - 1;
+        while (true) {
+            while (i <= j && a[i] < pivot) i++;
+            while (i <= j && a[j] >= pivot) j--;
+            if (i >= j) return i;
+            swap(a, i++, j--);
+        }
+    }
+
+    static void insertionSort(int[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            insert(a, from, i);
+        }
+    }
+
+    // Shifts a[i] down into the sorted run [from, i)
+    private static void insert(int[] a, int from, int i) {
+        int key = a[i];
+        int j = i - 1;
+        while (j >= from && a[j] > key) {
+            a[j + 1] = a[j];
+            j--;
+        }
+        a[j + 1] = key;
+    }
+
+    static void swap(int[] a, int i, int j) {
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+}
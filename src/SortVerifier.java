@@ -0,0 +1,139 @@
+import java.util.stream.IntStream;
+
+// Checks a sort's output in parallel, one chunk per task: that it is in order, that
+// it is a permutation of the input, and for packed KeyIndex records that equal keys
+// kept their input order. Permutation checking compares order-independent multiset
+// hashes, so the input never has to be copied or sorted a second time.
+final class SortVerifier {
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    // Element count and two independent sums of mixed values; equal multisets always
+    // match and different ones collide with probability around 2^-128
+    record Fingerprint(long count, long sum, long mixedSum) {
+    }
+
+    record Result(long firstUnsorted, long firstUnstable, boolean permutation, long nanos) {
+        boolean sorted() {
+            return firstUnsorted < 0;
+        }
+
+        boolean stable() {
+            return firstUnstable < 0;
+        }
+
+        boolean passed() {
+            return sorted() && stable() && permutation;
+        }
+
+        String describe() {
+            if (!sorted()) return "out of order at index " + firstUnsorted;
+            if (!permutation) return "not a permutation of the input";
+            if (!stable()) return "equal keys reordered at index " + firstUnstable;
+            return "sorted permutation of the input";
+        }
+    }
+
+    private SortVerifier() {
+    }
+
+    static Fingerprint fingerprint(int[] a) {
+        long[] sums = new long[chunkCount(a.length)];
+        long[] mixedSums = new long[sums.length];
+        IntStream.range(0, sums.length).parallel().forEach(chunk -> {
+            long sum = 0, mixedSum = 0;
+            for (int i = chunkStart(chunk), end = chunkEnd(chunk, a.length); i < end; i++) {
+                sum += mix(a[i]);
+                mixedSum += mix(a[i] ^ 0x9E3779B97F4A7C15L);
+            }
+            sums[chunk] = sum;
+            mixedSums[chunk] = mixedSum;
+        });
+        return new Fingerprint(a.length, total(sums), total(mixedSums));
+    }
+
+    static Fingerprint fingerprint(long[] a) {
+        long[] sums = new long[chunkCount(a.length)];
+        long[] mixedSums = new long[sums.length];
+        IntStream.range(0, sums.length).parallel().forEach(chunk -> {
+            long sum = 0, mixedSum = 0;
+            for (int i = chunkStart(chunk), end = chunkEnd(chunk, a.length); i < end; i++) {
+                sum += mix(a[i]);
+                mixedSum += mix(a[i] ^ 0x9E3779B97F4A7C15L);
+            }
+            sums[chunk] = sum;
+            mixedSums[chunk] = mixedSum;
+        });
+        return new Fingerprint(a.length, total(sums), total(mixedSums));
+    }
+
+    static Result verify(int[] output, Fingerprint input) {
+        long start = System.nanoTime();
+        long firstUnsorted = firstUnsorted(output);
+        boolean permutation = fingerprint(output).equals(input);
+        return new Result(firstUnsorted, -1, permutation, System.nanoTime() - start);
+    }
+
+    // Records are KeyIndex values whose index is their position in the input
+    static Result verifyRecords(long[] output, Fingerprint input) {
+        long start = System.nanoTime();
+        long firstUnsorted = firstViolation(output, false);
+        long firstUnstable = firstViolation(output, true);
+        boolean permutation = fingerprint(output).equals(input);
+        return new Result(firstUnsorted, firstUnstable, permutation, System.nanoTime() - start);
+    }
+
+    // Smallest i with a[i - 1] > a[i], or -1 when the array is in order
+    static long firstUnsorted(int[] a) {
+        long first = IntStream.range(0, chunkCount(a.length)).parallel().mapToLong(chunk -> {
+            for (int i = Math.max(1, chunkStart(chunk)), end = chunkEnd(chunk, a.length); i < end; i++) {
+                if (a[i - 1] > a[i]) return i;
+            }
+            return Long.MAX_VALUE;
+        }).min().orElse(Long.MAX_VALUE);
+        return first == Long.MAX_VALUE ? -1 : first;
+    }
+
+    // Smallest i whose record breaks key order, or with stability set, whose record
+    // has the same key as its predecessor but an earlier input index
+    private static long firstViolation(long[] a, boolean stability) {
+        long first = IntStream.range(0, chunkCount(a.length)).parallel().mapToLong(chunk -> {
+            for (int i = Math.max(1, chunkStart(chunk)), end = chunkEnd(chunk, a.length); i < end; i++) {
+                int previousKey = KeyIndex.key(a[i - 1]), key = KeyIndex.key(a[i]);
+                boolean violation = stability
+                        ? previousKey == key && KeyIndex.index(a[i - 1]) > KeyIndex.index(a[i])
+                        : previousKey > key;
+                if (violation) return i;
+            }
+            return Long.MAX_VALUE;
+        }).min().orElse(Long.MAX_VALUE);
+        return first == Long.MAX_VALUE ? -1 : first;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long total(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    private static int chunkCount(int n) {
+        return (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    private static int chunkStart(int chunk) {
+        return chunk * CHUNK_SIZE;
+    }
+
+    private static int chunkEnd(int chunk, int n) {
+        return (int) Math.min(n, (long) (chunk + 1) * CHUNK_SIZE);
+    }
+}
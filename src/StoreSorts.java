@@ -0,0 +1,90 @@
+// Sorting kernels over IntStore with long indices, for data that lives off-heap or
+// exceeds int[] limits. Quick sort falls back to heap sort when recursion gets too
+// deep, so it stays O(n log n) on any input.
+final class StoreSorts {
+    private StoreSorts() {
+    }
+
+    static void quickSort(IntStore store) {
+        long n = store.length();
+        quickSort(store, 0, n, 2 * (64 - Long.numberOfLeadingZeros(Math.max(1, n))));
+    }
+
+    private static void quickSort(IntStore store, long from, long to, int depth) {
+        while (to - from > SortKernels.INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(store, from, to);
+                return;
+            }
+            long mid = from + (to - from) / 2;
+            int x = store.get(from), y = store.get(mid), z = store.get(to - 1);
+            int pivot = Math.max(Math.min(x, y), Math.min(Math.max(x, y), z));
+
+            // Hoare partition: [from, j] <= pivot <= [j + 1, to)
+            long i = from - 1, j = to;
+            while (true) {
+                do i++; while (store.get(i) < pivot);
+                do j--; while (store.get(j) > pivot);
+                if (i >= j) break;
+                store.swap(i, j);
+            }
+
+            if (j + 1 - from < to - j - 1) {
+                quickSort(store, from, j + 1, depth);
+                from = j + 1;
+            } else {
+                quickSort(store, j + 1, to, depth);
+                to = j + 1;
+            }
+        }
+        insertionSort(store, from, to);
+    }
+
+    static void heapSort(IntStore store) {
+        heapSort(store, 0, store.length());
+    }
+
+    static void heapSort(IntStore store, long from, long to) {
+        long n = to - from;
+        for (long i = n / 2 - 1; i >= 0; i--) {
+            siftDown(store, from, i, n);
+        }
+        for (long end = n - 1; end > 0; end--) {
+            store.swap(from, from + end);
+            siftDown(store, from, 0, end);
+        }
+    }
+
+    private static void siftDown(IntStore store, long base, long i, long n) {
+        int value = store.get(base + i);
+        while (true) {
+            long child = 2 * i + 1;
+            if (child >= n) break;
+            if (child + 1 < n && store.get(base + child + 1) > store.get(base + child)) child++;
+            int childValue = store.get(base + child);
+            if (childValue <= value) break;
+            store.set(base + i, childValue);
+            i = child;
+        }
+        store.set(base + i, value);
+    }
+
+    static void insertionSort(IntStore store, long from, long to) {
+        for (long i = from + 1; i < to; i++) {
+            int key = store.get(i);
+            long j = i - 1;
+            while (j >= from && store.get(j) > key) {
+                store.set(j + 1, store.get(j));
+                j--;
+            }
+            store.set(j + 1, key);
+        }
+    }
+
+    static boolean isSorted(IntStore store) {
+        for (long i = 1, n = store.length(); i < n; i++) {
+            if (store.get(i - 1) > store.get(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,315 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Streams a traced run to a file as it happens, as CSV or as Chrome trace-event JSON
+// that opens in Perfetto or chrome://tracing. The sorting thread formats each event
+// straight into one of a few fixed direct buffers and hands full ones to a writer
+// thread, which drains them into a FileChannel and returns them, so memory stays the
+// same however long the run; the sort only waits if the disk falls a whole pool of
+// buffers behind. Times are nanoseconds from when the exporter was created.
+//
+// CSV columns are event,ns,i,j,left,right,phase,duration_ns. A compare or swap fills
+// i, j and the two values (before the swap), a write fills i and the value as left,
+// and a phase fills ns with its start, i and j with its range [from, to), its name
+// and its duration. In the JSON, phases are complete ("X") events and operations are
+// instant ("i") events with the same fields as args, all on one track.
+final class TraceExporter implements OperationLog.Trace, AutoCloseable {
+    enum Format {
+        CSV("CSV", "csv"),
+        CHROME("Chrome trace JSON", "json");
+
+        private final String label;
+        private final String extension;
+
+        Format(String label, String extension) {
+            this.label = label;
+            this.extension = extension;
+        }
+
+        String extension() {
+            return extension;
+        }
+
+        static Format forFile(Path file) {
+            return file.getFileName().toString().toLowerCase().endsWith("." + CHROME.extension) ? CHROME : CSV;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final int BUFFERS = 4;
+    // Room for any one event apart from its phase name
+    private static final int MAX_EVENT_BYTES = 256;
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final Format format;
+    private final FileChannel channel;
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFERS);
+    private final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(BUFFERS + 1);
+    private final Thread writer;
+    private final long origin = System.nanoTime();
+    private final byte[] digits = new byte[20];
+    private ByteBuffer buffer;
+    private long events;
+    private volatile long bytesWritten;
+    private volatile IOException failure;
+    private boolean closed;
+
+    // title names the track in the JSON and is ignored for CSV
+    TraceExporter(Path out, Format format, String title) throws IOException {
+        this.format = format;
+        channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        for (int i = 0; i < BUFFERS; i++) {
+            free.add(ByteBuffer.allocateDirect(BUFFER_BYTES));
+        }
+        buffer = free.remove();
+        writer = new Thread(this::drain, "trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        if (format == Format.CSV) {
+            ascii("event,ns,i,j,left,right,phase,duration_ns\n");
+        } else {
+            ascii("{\"traceEvents\":[\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":1,\"args\":{\"name\":\"");
+            escaped(title);
+            ascii("\"}}");
+        }
+    }
+
+    long events() {
+        return events;
+    }
+
+    long bytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void compare(int i, int j, int left, int right) {
+        operation("compare", i, j, left, right, true);
+    }
+
+    @Override
+    public void swap(int i, int j, int left, int right) {
+        operation("swap", i, j, left, right, true);
+    }
+
+    @Override
+    public void write(int i, int value) {
+        operation("write", i, 0, value, 0, false);
+    }
+
+    private void operation(String name, int i, int j, int left, int right, boolean pair) {
+        reserve(MAX_EVENT_BYTES);
+        long nanos = System.nanoTime() - origin;
+        if (format == Format.CSV) {
+            ascii(name);
+            buffer.put((byte) ',');
+            decimal(nanos);
+            buffer.put((byte) ',');
+            decimal(i);
+            buffer.put((byte) ',');
+            if (pair) decimal(j);
+            buffer.put((byte) ',');
+            decimal(left);
+            buffer.put((byte) ',');
+            if (pair) decimal(right);
+            ascii(",,\n");
+        } else {
+            ascii(",\n{\"name\":\"");
+            ascii(name);
+            ascii("\",\"ph\":\"i\",\"s\":\"t\",\"pid\":1,\"tid\":1,\"ts\":");
+            micros(nanos);
+            ascii(",\"args\":{\"i\":");
+            decimal(i);
+            if (pair) {
+                ascii(",\"j\":");
+                decimal(j);
+                ascii(",\"left\":");
+                decimal(left);
+                ascii(",\"right\":");
+                decimal(right);
+            } else {
+                ascii(",\"value\":");
+                decimal(left);
+            }
+            ascii("}}");
+        }
+        events++;
+    }
+
+    @Override
+    public void phase(String name, int from, int to, long startNanos, long endNanos) {
+        reserve(MAX_EVENT_BYTES + 6 * name.length());
+        long start = startNanos - origin;
+        if (format == Format.CSV) {
+            ascii("phase,");
+            decimal(start);
+            buffer.put((byte) ',');
+            decimal(from);
+            buffer.put((byte) ',');
+            decimal(to);
+            ascii(",,,");
+            escaped(name);
+            buffer.put((byte) ',');
+            decimal(endNanos - startNanos);
+            buffer.put((byte) '\n');
+        } else {
+            ascii(",\n{\"name\":\"");
+            escaped(name);
+            ascii("\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":");
+            micros(start);
+            ascii(",\"dur\":");
+            micros(endNanos - startNanos);
+            ascii(",\"args\":{\"from\":");
+            decimal(from);
+            ascii(",\"to\":");
+            decimal(to);
+            ascii("}}");
+        }
+        events++;
+    }
+
+    // Hands the last buffer over, waits for the writer to finish and closes the file
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (format == Format.CHROME) {
+                reserve(MAX_EVENT_BYTES);
+                ascii("\n]}\n");
+            }
+            handOff(buffer);
+            handOff(END);
+            boolean interrupted = false;
+            while (writer.isAlive()) {
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+        if (failure != null) throw failure;
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                ByteBuffer next = full.take();
+                if (next == END) return;
+                next.flip();
+                try {
+                    while (next.hasRemaining()) {
+                        bytesWritten += channel.write(next);
+                    }
+                } catch (IOException e) {
+                    // Keep taking buffers so the sorting thread never waits on a dead writer
+                    if (failure == null) failure = e;
+                }
+                next.clear();
+                free.put(next);
+            }
+        } catch (InterruptedException e) {
+            // Only interrupted if the whole process is going down
+        }
+    }
+
+    private void reserve(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        if (failure != null) throw new UncheckedIOException("Writing the trace failed", failure);
+        handOff(buffer);
+        buffer = take();
+    }
+
+    // The queues never fill past their capacity, so these waits are only for the writer
+    private void handOff(ByteBuffer full) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                this.full.put(full);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private ByteBuffer take() {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return free.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ascii(String text) {
+        for (int k = 0; k < text.length(); k++) {
+            buffer.put((byte) text.charAt(k));
+        }
+    }
+
+    // Phase names for both formats: JSON string escapes, commas dropped for CSV, and
+    // anything outside printable ASCII as '?'
+    private void escaped(String text) {
+        for (int k = 0; k < text.length(); k++) {
+            char c = text.charAt(k);
+            if (c < 0x20 || c > 0x7E) {
+                buffer.put((byte) '?');
+            } else if (format == Format.CSV) {
+                buffer.put(c == ',' ? (byte) ' ' : (byte) c);
+            } else {
+                if (c == '"' || c == '\\') buffer.put((byte) '\\');
+                buffer.put((byte) c);
+            }
+        }
+    }
+
+    private void decimal(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (length > 0) {
+            buffer.put(digits[--length]);
+        }
+    }
+
+    // Microseconds with three decimals, the unit of Chrome trace timestamps
+    private void micros(long nanos) {
+        decimal(nanos / 1000);
+        int fraction = (int) (nanos % 1000);
+        buffer.put((byte) '.');
+        buffer.put((byte) ('0' + fraction / 100));
+        buffer.put((byte) ('0' + fraction / 10 % 10));
+        buffer.put((byte) ('0' + fraction % 10));
+    }
+}
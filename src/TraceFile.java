@@ -0,0 +1,212 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A binary operation trace, read through memory mappings so that opening one costs
+// the same whatever its size; pages are only read as the replay reaches them. All
+// numbers are little-endian 32-bit ints:
+//
+//   offset 0        magic 0x52545641 ("AVTR" as bytes)
+//   offset 4        format version, 1
+//   offset 8        n, the array length
+//   offset 12       reserved, 0
+//   offset 16       the n values of the initial array
+//   then            12-byte operations to the end of the file: kind, first, second
+//
+// kind is COMPARE (first and second are the indices compared, or -1 for a value held
+// outside the array), SWAP (the two indices) or WRITE (first is the index, second the
+// value written). The operation count comes from the file size, and a partial last
+// record is ignored, so a trace can be opened while its producer is still writing.
+// Writer produces the format from any OperationLog.
+final class TraceFile implements AutoCloseable {
+    static final String EXTENSION = "avtrace";
+    static final int MAGIC = 0x52545641;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 12;
+    static final int COMPARE = 0;
+    static final int SWAP = 1;
+    static final int WRITE = 2;
+
+    // Operations per mapping, keeping each one under the 2 GB a buffer can address
+    private static final long WINDOW_RECORDS = 1L << 26;
+
+    private final FileChannel channel;
+    private final int length;
+    private final long operations;
+    private final long operationsStart;
+    private final MappedByteBuffer[] windows;
+    // The window last read from, and the first operation in it
+    private MappedByteBuffer current;
+    private long currentFirst = -WINDOW_RECORDS;
+
+    private TraceFile(FileChannel channel, int length, long operations) {
+        this.channel = channel;
+        this.length = length;
+        this.operations = operations;
+        operationsStart = HEADER_BYTES + (long) length * Integer.BYTES;
+        windows = new MappedByteBuffer[(int) ((operations + WINDOW_RECORDS - 1) / WINDOW_RECORDS)];
+    }
+
+    static TraceFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Read the whole header
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException(path.getFileName() + " is not an operation trace");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported trace version " + header.getInt(4));
+            }
+            int length = header.getInt(8);
+            long operationsStart = HEADER_BYTES + (long) length * Integer.BYTES;
+            if (length < 0 || channel.size() < operationsStart) {
+                throw new IOException("Trace is cut off inside its initial array");
+            }
+            return new TraceFile(channel, length, (channel.size() - operationsStart) / RECORD_BYTES);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Array length
+    int length() {
+        return length;
+    }
+
+    long operations() {
+        return operations;
+    }
+
+    int[] initial() throws IOException {
+        int[] values = new int[length];
+        if (length > 0) {
+            channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) length * Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values);
+        }
+        return values;
+    }
+
+    int kind(long operation) {
+        return field(operation, 0);
+    }
+
+    int first(long operation) {
+        return field(operation, 4);
+    }
+
+    int second(long operation) {
+        return field(operation, 8);
+    }
+
+    private int field(long operation, int offset) {
+        long record = operation - currentFirst;
+        if (record < 0 || record >= WINDOW_RECORDS) {
+            int window = (int) (operation / WINDOW_RECORDS);
+            current = windows[window] != null ? windows[window] : map(window);
+            currentFirst = window * WINDOW_RECORDS;
+            record = operation - currentFirst;
+        }
+        return current.getInt((int) record * RECORD_BYTES + offset);
+    }
+
+    private MappedByteBuffer map(int window) {
+        long first = window * WINDOW_RECORDS;
+        long records = Math.min(WINDOW_RECORDS, operations - first);
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                    operationsStart + first * RECORD_BYTES, records * RECORD_BYTES);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            windows[window] = mapped;
+            return mapped;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Streams a run in the trace format: the initial array first, then every operation
+    // through a buffered channel on the sorting thread. Phases are not part of the format.
+    static final class Writer implements OperationLog.Trace, AutoCloseable {
+        private static final int BUFFER_BYTES = 1 << 20;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private long operations;
+
+        Writer(Path out, int[] initial) throws IOException {
+            channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(initial.length).putInt(0);
+            for (int value : initial) {
+                if (buffer.remaining() < Integer.BYTES) flush();
+                buffer.putInt(value);
+            }
+        }
+
+        long operations() {
+            return operations;
+        }
+
+        @Override
+        public void compare(int i, int j, int left, int right) {
+            record(COMPARE, i, j);
+        }
+
+        @Override
+        public void swap(int i, int j, int left, int right) {
+            record(SWAP, i, j);
+        }
+
+        @Override
+        public void write(int i, int value) {
+            record(WRITE, i, value);
+        }
+
+        @Override
+        public void phase(String name, int from, int to, long startNanos, long endNanos) {
+        }
+
+        private void record(int kind, int first, int second) {
+            if (buffer.remaining() < RECORD_BYTES) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Writing the trace failed", e);
+                }
+            }
+            buffer.putInt(kind).putInt(first).putInt(second);
+            operations++;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
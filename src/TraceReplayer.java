@@ -0,0 +1,161 @@
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Plays a TraceFile forward over its own copy of the array, and seeks anywhere in it.
+// Going forward just applies operations. Seeking goes back to the nearest checkpoint
+// at or before the target (the initial array if none) and applies operations from
+// there. Checkpoints (a copy of the array and the counters) are taken as playback
+// passes each multiple of an interval; when more than the memory budget allows
+// would be kept, the interval doubles and every other checkpoint is dropped, so a
+// long trace ends up with an even spread of at most maxCheckpoints of them.
+final class TraceReplayer {
+    private static final long MIN_INTERVAL = 1 << 20;
+
+    private record Checkpoint(int[] array, long comparisons, long swaps, long writes) {
+    }
+
+    private final TraceFile trace;
+    private final int[] initial;
+    private final int[] array;
+    private final int maxCheckpoints;
+    private final TreeMap<Long, Checkpoint> checkpoints = new TreeMap<>();
+    private long interval;
+    private long nextCheckpoint;
+    private long position;
+    private long comparisons;
+    private long swaps;
+    private long writes;
+    private int lastKind = -1;
+    private int lastFirst = -1;
+    private int lastSecond = -1;
+
+    TraceReplayer(TraceFile trace, long checkpointBudgetBytes) throws IOException {
+        this.trace = trace;
+        initial = trace.initial();
+        array = initial.clone();
+        long checkpointBytes = Math.max(1, (long) array.length * Integer.BYTES);
+        maxCheckpoints = (int) Math.max(2, Math.min(Integer.MAX_VALUE, checkpointBudgetBytes / checkpointBytes));
+        interval = Math.max(MIN_INTERVAL, trace.operations() / maxCheckpoints + 1);
+        nextCheckpoint = interval;
+    }
+
+    // Updated in place by step and seek, so it can be drawn while the replay runs
+    int[] array() {
+        return array;
+    }
+
+    TraceFile trace() {
+        return trace;
+    }
+
+    long position() {
+        return position;
+    }
+
+    boolean finished() {
+        return position == trace.operations();
+    }
+
+    long comparisons() {
+        return comparisons;
+    }
+
+    long swaps() {
+        return swaps;
+    }
+
+    long writes() {
+        return writes;
+    }
+
+    // The last operation applied: TraceFile.COMPARE, SWAP or WRITE, or -1 at the start
+    int lastKind() {
+        return lastKind;
+    }
+
+    int lastFirst() {
+        return lastFirst;
+    }
+
+    // The second index of a compare or swap, or -1 after a write
+    int lastSecond() {
+        return lastSecond;
+    }
+
+    // Applies up to count operations; returns how many there were
+    long step(long count) {
+        long end = Math.min(trace.operations(), position + Math.max(0, count));
+        long start = position;
+        while (position < end) {
+            if (position == nextCheckpoint) {
+                checkpoint();
+            }
+            apply(position++);
+        }
+        return position - start;
+    }
+
+    void seek(long target) {
+        target = Math.max(0, Math.min(trace.operations(), target));
+        if (target < position) {
+            Map.Entry<Long, Checkpoint> entry = checkpoints.floorEntry(target);
+            Checkpoint from = entry != null ? entry.getValue() : new Checkpoint(initial, 0, 0, 0);
+            System.arraycopy(from.array(), 0, array, 0, array.length);
+            position = entry != null ? entry.getKey() : 0;
+            comparisons = from.comparisons();
+            swaps = from.swaps();
+            writes = from.writes();
+            lastKind = -1;
+            lastFirst = -1;
+            lastSecond = -1;
+            nextCheckpoint = (position / interval + 1) * interval;
+        }
+        step(target - position);
+    }
+
+    private void apply(long operation) {
+        int kind = trace.kind(operation);
+        int first = trace.first(operation);
+        int second = trace.second(operation);
+        switch (kind) {
+            case TraceFile.COMPARE -> comparisons++;
+            case TraceFile.SWAP -> {
+                checkIndex(operation, first);
+                checkIndex(operation, second);
+                int temp = array[first];
+                array[first] = array[second];
+                array[second] = temp;
+                swaps++;
+            }
+            case TraceFile.WRITE -> {
+                checkIndex(operation, first);
+                array[first] = second;
+                writes++;
+                second = -1;
+            }
+            default -> throw new IllegalStateException("Operation " + operation + " has unknown kind " + kind);
+        }
+        lastKind = kind;
+        lastFirst = first;
+        lastSecond = second;
+    }
+
+    private void checkIndex(long operation, int index) {
+        if (index < 0 || index >= array.length) {
+            throw new IllegalStateException("Operation " + operation + " touches index " + index
+                    + " of a " + array.length + "-element array");
+        }
+    }
+
+    private void checkpoint() {
+        if (!checkpoints.containsKey(position)) {
+            checkpoints.put(position, new Checkpoint(array.clone(), comparisons, swaps, writes));
+        }
+        if (checkpoints.size() > maxCheckpoints) {
+            interval *= 2;
+            checkpoints.keySet().removeIf(at -> at % interval != 0);
+        }
+        nextCheckpoint = (position / interval + 1) * interval;
+    }
+}
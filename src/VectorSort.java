@@ -0,0 +1,178 @@
+import java.util.Arrays;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+// Quicksort kernels on the Vector API (run with --add-modules jdk.incubator.vector).
+// Partitioning compresses the lanes below the pivot to the left and the rest to the
+// right, and ranges of at most one vector are sorted in registers by a bitonic
+// network. When the preferred species holds fewer than MIN_LANES ints there is
+// nothing to gain, so everything falls back to the scalar kernels.
+final class VectorSort {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final int MIN_LANES = 8;
+
+    // One (partner shuffle, take-max mask) pair per compare-exchange stage of the network
+    private static final VectorShuffle<Integer>[] NETWORK_SHUFFLES;
+    private static final VectorMask<Integer>[] NETWORK_MAX_LANES;
+
+    static {
+        int stages = 0;
+        for (int k = 2; k <= LANES; k *= 2) {
+            for (int j = k / 2; j > 0; j /= 2) {
+                stages++;
+            }
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        VectorShuffle<Integer>[] shuffles = new VectorShuffle[stages];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        VectorMask<Integer>[] maxLanes = new VectorMask[stages];
+
+        int stage = 0;
+        for (int k = 2; k <= LANES; k *= 2) {
+            for (int j = k / 2; j > 0; j /= 2) {
+                int[] partners = new int[LANES];
+                boolean[] takeMax = new boolean[LANES];
+                for (int lane = 0; lane < LANES; lane++) {
+                    partners[lane] = lane ^ j;
+                    boolean ascending = (lane & k) == 0;
+                    boolean lower = (lane & j) == 0;
+                    takeMax[lane] = lower != ascending;
+                }
+                shuffles[stage] = VectorShuffle.fromArray(SPECIES, partners, 0);
+                maxLanes[stage] = VectorMask.fromArray(SPECIES, takeMax, 0);
+                stage++;
+            }
+        }
+        NETWORK_SHUFFLES = shuffles;
+        NETWORK_MAX_LANES = maxLanes;
+    }
+
+    private VectorSort() {
+    }
+
+    static boolean isVectorized() {
+        return LANES >= MIN_LANES;
+    }
+
+    static int lanes() {
+        return LANES;
+    }
+
+    // Ranges this short are finished by sortSmall instead of being partitioned again
+    static int smallSortLength() {
+        return isVectorized() ? LANES : SortKernels.INSERTION_SORT_THRESHOLD;
+    }
+
+    static void sort(int[] a) {
+        sort(a, 0, a.length);
+    }
+
+    static void sort(int[] a, int from, int to) {
+        sort(a, from, to, 2 * (32 - Integer.numberOfLeadingZeros(Math.max(1, to - from))));
+    }
+
+    private static void sort(int[] a, int from, int to, int depth) {
+        while (to - from > smallSortLength()) {
+            if (depth-- == 0) {
+                Arrays.sort(a, from, to);
+                return;
+            }
+            int pivot = medianOfThree(a, from, to);
+            int split = partition(a, from, to, pivot);
+            if (split == from) {
+                // The pivot is the minimum: peel off every copy of it and go on with the rest
+                if (pivot == Integer.MAX_VALUE) return;
+                from = partition(a, from, to, pivot + 1);
+                continue;
+            }
+            if (split - from < to - split) {
+                sort(a, from, split, depth);
+                from = split;
+            } else {
+                sort(a, split, to, depth);
+                to = split;
+            }
+        }
+        sortSmall(a, from, to);
+    }
+
+    static int medianOfThree(int[] a, int from, int to) {
+        int x = a[from], y = a[(from + to) >>> 1], z = a[to - 1];
+        return Math.max(Math.min(x, y), Math.min(Math.max(x, y), z));
+    }
+
+    // Moves everything below pivot to the front of [from, to) and returns where the rest starts
+    static int partition(int[] a, int from, int to, int pivot) {
+        if (!isVectorized() || to - from < 2 * LANES) {
+            return SortKernels.partition(a, from, to, pivot);
+        }
+
+        // The first and last vectors are held back so that the left and right write
+        // cursors always have at least one vector of already-read slots to fill
+        IntVector first = IntVector.fromArray(SPECIES, a, from);
+        IntVector last = IntVector.fromArray(SPECIES, a, to - LANES);
+        int readLeft = from + LANES, readRight = to - LANES;
+        int writeLeft = from, writeRight = to;
+
+        while (readRight - readLeft >= LANES) {
+            IntVector v;
+            if (readLeft - writeLeft <= writeRight - readRight) {
+                v = IntVector.fromArray(SPECIES, a, readLeft);
+                readLeft += LANES;
+            } else {
+                readRight -= LANES;
+                v = IntVector.fromArray(SPECIES, a, readRight);
+            }
+            VectorMask<Integer> below = v.compare(VectorOperators.LT, pivot);
+            int count = below.trueCount();
+            v.compress(below).intoArray(a, writeLeft);
+            writeLeft += count;
+            writeRight -= LANES - count;
+            v.compress(below.not()).intoArray(a, writeRight, SPECIES.indexInRange(0, LANES - count));
+        }
+
+        // What is left unread now joins the free slots between the two cursors
+        int remaining = readRight - readLeft;
+        IntVector tail = IntVector.fromArray(SPECIES, a, readLeft, SPECIES.indexInRange(0, remaining));
+        int count = store(tail, remaining, pivot, a, writeLeft, writeRight);
+        writeLeft += count;
+        writeRight -= remaining - count;
+        count = store(first, LANES, pivot, a, writeLeft, writeRight);
+        writeLeft += count;
+        writeRight -= LANES - count;
+        return writeLeft + store(last, LANES, pivot, a, writeLeft, writeRight);
+    }
+
+    // Writes the first lanes of v below pivot at writeLeft and the others just before
+    // writeRight, returning how many went left
+    private static int store(IntVector v, int lanes, int pivot, int[] a, int writeLeft, int writeRight) {
+        VectorMask<Integer> valid = SPECIES.indexInRange(0, lanes);
+        VectorMask<Integer> below = v.compare(VectorOperators.LT, pivot, valid);
+        int count = below.trueCount();
+        int aboveCount = lanes - count;
+        v.compress(below).intoArray(a, writeLeft, SPECIES.indexInRange(0, count));
+        v.compress(below.not().and(valid)).intoArray(a, writeRight - aboveCount, SPECIES.indexInRange(0, aboveCount));
+        return count;
+    }
+
+    // Sorts ranges of at most smallSortLength() elements
+    static void sortSmall(int[] a, int from, int to) {
+        int length = to - from;
+        if (!isVectorized() || length > LANES) {
+            SortKernels.insertionSort(a, from, to);
+            return;
+        }
+        VectorMask<Integer> valid = SPECIES.indexInRange(0, length);
+        IntVector v = IntVector.broadcast(SPECIES, Integer.MAX_VALUE)
+                .blend(IntVector.fromArray(SPECIES, a, from, valid), valid);
+        for (int stage = 0; stage < NETWORK_SHUFFLES.length; stage++) {
+            IntVector partner = v.rearrange(NETWORK_SHUFFLES[stage]);
+            v = v.min(partner).blend(v.max(partner), NETWORK_MAX_LANES[stage]);
+        }
+        v.intoArray(a, from, valid);
+    }
+}
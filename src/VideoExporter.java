@@ -0,0 +1,552 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+// Renders a recorded run to an animated PNG, a GIF or a Motion JPEG AVI at a fixed
+// frame rate, as fast as the machine allows. The calling thread replays the log and
+// keeps one running sum per pixel column, so a frame is only a small array of bar
+// heights; workers rasterize and compress frames in parallel into 4-color palette
+// buffers, and the calling thread writes the results in order with a bounded number
+// of frames in flight. Everything is plain JDK: zlib for PNG, a built-in LZW coder
+// for GIF and ImageIO's JPEG writer for the AVI.
+final class VideoExporter {
+    enum Format {
+        APNG("Animated PNG", "png"),
+        GIF("Animated GIF", "gif"),
+        MJPEG("Motion JPEG AVI", "avi");
+
+        private final String label;
+        private final String extension;
+
+        Format(String label, String extension) {
+            this.label = label;
+            this.extension = extension;
+        }
+
+        String extension() {
+            return extension;
+        }
+
+        static Format forFile(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            for (Format format : values()) {
+                if (name.endsWith("." + format.extension)) return format;
+            }
+            return APNG;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    interface Progress {
+        void framesWritten(int written, int total) throws InterruptedException;
+    }
+
+    private static final int[] PALETTE = { 0xFFFFFF, 0xADD8E6, 0xFF0000, 0x00008B };
+    private static final byte BACKGROUND = 0;
+    private static final byte BAR = 1;
+    private static final byte HIGHLIGHT = 2;
+    private static final byte EDGE = 3;
+    private static final int FRAMES_IN_FLIGHT_PER_THREAD = 2;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final int width;
+    private final int height;
+    private final int fps;
+    private final int threads;
+    private final ThreadLocal<byte[]> pixelBuffers;
+
+    VideoExporter(int width, int height, int fps, int threads) {
+        this.width = width;
+        this.height = height;
+        this.fps = fps;
+        this.threads = threads;
+        pixelBuffers = ThreadLocal.withInitial(() -> new byte[width * height]);
+    }
+
+    // Replays log over a copy of initial and writes frames evenly spaced through it,
+    // the first showing the input and the last the sorted output
+    void export(int[] initial, OperationLog log, int frames, Format format, Path out, Progress progress)
+            throws IOException, InterruptedException {
+        int n = initial.length;
+        int columns = Math.max(1, Math.min(n, width));
+        int[] a = initial.clone();
+        long[] sums = new long[columns];
+        int[] counts = new int[columns];
+        for (int i = 0; i < n; i++) {
+            int column = column(i, n, columns);
+            sums[column] += a[i];
+            counts[column]++;
+        }
+        IntSummary range = IntSummary.of(a);
+        double maxBar = height * 7 / 8.0;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        try (FrameWriter writer = writer(format, out, frames)) {
+            long applied = 0;
+            for (int frame = 0; frame < frames; frame++) {
+                long target = frames == 1 ? log.size() : log.size() * frame / (frames - 1);
+                int highlight1 = -1, highlight2 = -1;
+                for (; applied < target; applied++) {
+                    long op = log.get(applied);
+                    int i = OperationLog.index(op);
+                    int ci = column(i, n, columns);
+                    if (OperationLog.isSwap(op)) {
+                        int j = OperationLog.operand(op);
+                        int cj = column(j, n, columns);
+                        sums[ci] += (long) a[j] - a[i];
+                        sums[cj] += (long) a[i] - a[j];
+                        highlight2 = cj;
+                    } else {
+                        sums[ci] += (long) OperationLog.operand(op) - a[i];
+                        highlight2 = -1;
+                    }
+                    OperationLog.apply(op, a);
+                    highlight1 = ci;
+                }
+
+                int[] heights = new int[columns];
+                for (int c = 0; c < columns; c++) {
+                    double mean = counts[c] == 0 ? range.min : (double) sums[c] / counts[c];
+                    heights[c] = (int) Math.round((mean - range.min) / range.span * maxBar);
+                }
+                int h1 = highlight1, h2 = highlight2;
+                inFlight.add(pool.submit(() -> writer.encode(bars(heights, h1, h2))));
+
+                while (inFlight.size() > threads * FRAMES_IN_FLIGHT_PER_THREAD
+                        || (frame == frames - 1 && !inFlight.isEmpty())) {
+                    writer.write(await(inFlight.poll()));
+                    if (progress != null) {
+                        progress.framesWritten(frame + 1 - inFlight.size(), frames);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static int column(int index, int n, int columns) {
+        return (int) ((long) index * columns / n);
+    }
+
+    // Where each pixel column's bar starts and its color. Bars rise from the bottom
+    // edge with a darker top pixel, and bars wide enough to show it end in one pixel
+    // column of background.
+    private record Bars(int[] tops, byte[] colors) {
+        byte pixel(int x, int y) {
+            int top = tops[x];
+            return y < top ? BACKGROUND : y == top ? EDGE : colors[x];
+        }
+    }
+
+    private Bars bars(int[] heights, int highlight1, int highlight2) {
+        int columns = heights.length;
+        int[] tops = new int[width];
+        byte[] colors = new byte[width];
+        boolean gaps = width / columns >= 3;
+        for (int x = 0; x < width; x++) {
+            int column = (int) ((long) x * columns / width);
+            boolean lastPixel = x + 1 == width || (int) ((long) (x + 1) * columns / width) != column;
+            tops[x] = gaps && lastPixel ? height : height - heights[column];
+            colors[x] = column == highlight1 || column == highlight2 ? HIGHLIGHT : BAR;
+        }
+        return new Bars(tops, colors);
+    }
+
+    private byte[] rasterize(Bars bars) {
+        byte[] pixels = pixelBuffers.get();
+        int[] tops = bars.tops();
+        byte[] colors = bars.colors();
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int top = tops[x];
+                pixels[row + x] = y < top ? BACKGROUND : y == top ? EDGE : colors[x];
+            }
+        }
+        return pixels;
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("Frame encoding failed", e.getCause());
+        }
+    }
+
+    private FrameWriter writer(Format format, Path out, int frames) throws IOException {
+        return switch (format) {
+            case APNG -> new ApngWriter(out, frames);
+            case GIF -> new GifWriter(out);
+            case MJPEG -> new AviWriter(out, frames);
+        };
+    }
+
+    private record IntSummary(double min, double span) {
+        static IntSummary of(int[] a) {
+            int min = 0, max = 1;
+            for (int value : a) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            return new IntSummary(min, Math.max(1, (double) max - min));
+        }
+    }
+
+    // encode runs on the workers and must not touch writer state; write and close
+    // run on the exporting thread in frame order
+    private interface FrameWriter extends AutoCloseable {
+        byte[] encode(Bars bars) throws IOException;
+
+        void write(byte[] encoded) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    // APNG with a palette, every frame a complete image. Rows after the first use the
+    // Up filter, under which a bar chart is zero except just at and below the top of
+    // each bar, so frames are filtered straight from the bar tops without rasterizing.
+    private final class ApngWriter implements FrameWriter {
+        private final OutputStream out;
+        private int sequence;
+        private boolean first = true;
+
+        ApngWriter(Path path, int frames) throws IOException {
+            out = Files.newOutputStream(path);
+            out.write(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' });
+            chunk("IHDR", ByteBuffer.allocate(13).putInt(width).putInt(height)
+                    .put((byte) 8).put((byte) 3).put((byte) 0).put((byte) 0).put((byte) 0));
+            ByteBuffer palette = ByteBuffer.allocate(PALETTE.length * 3);
+            for (int rgb : PALETTE) {
+                palette.put((byte) (rgb >> 16)).put((byte) (rgb >> 8)).put((byte) rgb);
+            }
+            chunk("PLTE", palette);
+            chunk("acTL", ByteBuffer.allocate(8).putInt(frames).putInt(0));
+        }
+
+        @Override
+        public byte[] encode(Bars bars) {
+            int stride = width + 1;
+            byte[] filtered = new byte[height * stride];
+            for (int x = 0; x < width; x++) {
+                filtered[1 + x] = bars.pixel(x, 0);
+            }
+            for (int y = 1; y < height; y++) {
+                filtered[y * stride] = 2;
+            }
+            for (int x = 0; x < width; x++) {
+                int top = bars.tops()[x];
+                if (top >= 1 && top < height) {
+                    filtered[top * stride + 1 + x] = EDGE - BACKGROUND;
+                }
+                if (top + 1 >= 1 && top + 1 < height) {
+                    filtered[(top + 1) * stride + 1 + x] = (byte) (bars.colors()[x] - EDGE);
+                }
+            }
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            deflater.setInput(filtered);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1 << 16];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            deflater.end();
+            return compressed.toByteArray();
+        }
+
+        @Override
+        public void write(byte[] encoded) throws IOException {
+            chunk("fcTL", ByteBuffer.allocate(26).putInt(sequence++).putInt(width).putInt(height)
+                    .putInt(0).putInt(0).putShort((short) 1).putShort((short) fps).put((byte) 0).put((byte) 0));
+            if (first) {
+                chunk("IDAT", ByteBuffer.wrap(encoded));
+                first = false;
+            } else {
+                chunk("fdAT", ByteBuffer.allocate(4 + encoded.length).putInt(sequence++).put(encoded));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (out) {
+                chunk("IEND", ByteBuffer.allocate(0));
+            }
+        }
+
+        private void chunk(String type, ByteBuffer data) throws IOException {
+            byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+            byte[] body = data.array();
+            CRC32 crc = new CRC32();
+            crc.update(typeBytes);
+            crc.update(body);
+            out.write(ByteBuffer.allocate(4).putInt(body.length).array());
+            out.write(typeBytes);
+            out.write(body);
+            out.write(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+        }
+    }
+
+    // GIF89a with a 4-color global palette and one LZW-coded full frame per step.
+    // Delays are whole hundredths of a second with the rounding carried over, and at
+    // least two since viewers slow shorter delays down to a tenth of a second.
+    private final class GifWriter implements FrameWriter {
+        private static final int MIN_CODE_SIZE = 2;
+        private static final int MAX_CODES = 1 << 12;
+
+        private final OutputStream out;
+        private double delayCarry;
+
+        GifWriter(Path path) throws IOException {
+            out = Files.newOutputStream(path);
+            out.write("GIF89a".getBytes(StandardCharsets.US_ASCII));
+            out.write(new byte[] { (byte) width, (byte) (width >> 8), (byte) height, (byte) (height >> 8),
+                                   (byte) 0x91, 0, 0 });
+            for (int rgb : PALETTE) {
+                out.write(new byte[] { (byte) (rgb >> 16), (byte) (rgb >> 8), (byte) rgb });
+            }
+            // Loop forever
+            out.write(new byte[] { 0x21, (byte) 0xFF, 0x0B });
+            out.write("NETSCAPE2.0".getBytes(StandardCharsets.US_ASCII));
+            out.write(new byte[] { 0x03, 0x01, 0x00, 0x00, 0x00 });
+        }
+
+        @Override
+        public byte[] encode(Bars bars) {
+            byte[] pixels = rasterize(bars);
+            ByteArrayOutputStream data = new ByteArrayOutputStream(pixels.length / 8);
+            data.write(0x2C);
+            data.writeBytes(new byte[] { 0, 0, 0, 0, (byte) width, (byte) (width >> 8),
+                                         (byte) height, (byte) (height >> 8), 0 });
+            data.write(MIN_CODE_SIZE);
+            new LzwEncoder(data).encode(pixels);
+            data.write(0);
+            return data.toByteArray();
+        }
+
+        @Override
+        public void write(byte[] encoded) throws IOException {
+            delayCarry += 100.0 / fps;
+            int delay = Math.max(2, (int) delayCarry);
+            delayCarry -= delay;
+            out.write(new byte[] { 0x21, (byte) 0xF9, 0x04, 0x00, (byte) delay, (byte) (delay >> 8), 0x00, 0x00 });
+            out.write(encoded);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (out) {
+                out.write(0x3B);
+            }
+        }
+
+        // Variable-width LZW as GIF expects it, packed LSB first into sub-blocks of
+        // at most 255 bytes. With a 4-color palette a string table entry is indexed
+        // directly by (prefix code, next pixel), so no hashing is needed.
+        private static final class LzwEncoder {
+            private final ByteArrayOutputStream out;
+            private final byte[] block = new byte[255];
+            private final int[] table = new int[MAX_CODES << MIN_CODE_SIZE];
+            private int blockLength;
+            private int bitBuffer;
+            private int bitCount;
+            private int codeSize;
+            private int nextCode;
+
+            LzwEncoder(ByteArrayOutputStream out) {
+                this.out = out;
+            }
+
+            void encode(byte[] pixels) {
+                int clear = 1 << MIN_CODE_SIZE;
+                reset(clear);
+                emit(clear);
+                int prefix = pixels[0];
+                for (int i = 1; i < pixels.length; i++) {
+                    int pixel = pixels[i];
+                    int key = prefix << MIN_CODE_SIZE | pixel;
+                    int code = table[key];
+                    if (code != 0) {
+                        prefix = code;
+                        continue;
+                    }
+                    emit(prefix);
+                    prefix = pixel;
+                    if (nextCode < MAX_CODES) {
+                        table[key] = nextCode++;
+                    } else {
+                        emit(clear);
+                        reset(clear);
+                    }
+                }
+                emit(prefix);
+                emit(clear + 1);
+                if (bitCount > 0) {
+                    put(bitBuffer);
+                }
+                flushBlock();
+            }
+
+            private void reset(int clear) {
+                Arrays.fill(table, 0);
+                codeSize = MIN_CODE_SIZE + 1;
+                nextCode = clear + 2;
+            }
+
+            // Widens the code after writing once the next code to be assigned no longer fits
+            private void emit(int code) {
+                bitBuffer |= code << bitCount;
+                bitCount += codeSize;
+                while (bitCount >= 8) {
+                    put(bitBuffer);
+                    bitBuffer >>>= 8;
+                    bitCount -= 8;
+                }
+                if (nextCode > (1 << codeSize) - 1 && codeSize < 12) {
+                    codeSize++;
+                }
+            }
+
+            private void put(int value) {
+                block[blockLength++] = (byte) value;
+                if (blockLength == block.length) {
+                    flushBlock();
+                }
+            }
+
+            private void flushBlock() {
+                if (blockLength == 0) return;
+                out.write(blockLength);
+                out.write(block, 0, blockLength);
+                blockLength = 0;
+            }
+        }
+    }
+
+    // AVI 1.0 with one MJPG video stream. Header sizes that depend on the frames are
+    // patched in on close, and the idx1 index marks every frame as a key frame.
+    private final class AviWriter implements FrameWriter {
+        private static final int HEADER_BYTES = 224;
+        private static final int AVIF_HASINDEX = 0x10;
+        private static final int AVIIF_KEYFRAME = 0x10;
+
+        private final FileChannel channel;
+        private final ByteBuffer index;
+        private long moviBytes = 4;
+        private int maxFrameBytes;
+
+        AviWriter(Path path, int frames) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                       StandardOpenOption.TRUNCATE_EXISTING);
+            index = ByteBuffer.allocate(16 * frames).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            fourCc(header, "RIFF").putInt(0);
+            fourCc(header, "AVI ");
+            fourCc(header, "LIST").putInt(192);
+            fourCc(header, "hdrl");
+            fourCc(header, "avih").putInt(56)
+                    .putInt(1_000_000 / fps).putInt(0).putInt(0).putInt(AVIF_HASINDEX)
+                    .putInt(frames).putInt(0).putInt(1).putInt(0)
+                    .putInt(width).putInt(height).putInt(0).putInt(0).putInt(0).putInt(0);
+            fourCc(header, "LIST").putInt(116);
+            fourCc(header, "strl");
+            fourCc(fourCc(fourCc(header, "strh").putInt(56), "vids"), "MJPG")
+                    .putInt(0).putShort((short) 0).putShort((short) 0).putInt(0)
+                    .putInt(1).putInt(fps).putInt(0).putInt(frames).putInt(0).putInt(-1).putInt(0)
+                    .putShort((short) 0).putShort((short) 0).putShort((short) width).putShort((short) height);
+            fourCc(header, "strf").putInt(40)
+                    .putInt(40).putInt(width).putInt(height).putShort((short) 1).putShort((short) 24);
+            fourCc(header, "MJPG").putInt(width * height * 3).putInt(0).putInt(0).putInt(0).putInt(0);
+            fourCc(header, "LIST").putInt(0);
+            fourCc(header, "movi");
+            channel.write(header.flip());
+        }
+
+        @Override
+        public byte[] encode(Bars bars) throws IOException {
+            byte[] pixels = rasterize(bars);
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+            byte[] bgr = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            for (int p = 0, b = 0; p < pixels.length; p++) {
+                int rgb = PALETTE[pixels[p]];
+                bgr[b++] = (byte) rgb;
+                bgr[b++] = (byte) (rgb >> 8);
+                bgr[b++] = (byte) (rgb >> 16);
+            }
+            ImageWriter jpeg = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(bytes)) {
+                ImageWriteParam parameters = jpeg.getDefaultWriteParam();
+                parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                parameters.setCompressionQuality(JPEG_QUALITY);
+                jpeg.setOutput(stream);
+                jpeg.write(null, new IIOImage(image, null, null), parameters);
+            } finally {
+                jpeg.dispose();
+            }
+            return bytes.toByteArray();
+        }
+
+        @Override
+        public void write(byte[] encoded) throws IOException {
+            int padded = encoded.length + (encoded.length & 1);
+            ByteBuffer frame = ByteBuffer.allocate(8 + padded).order(ByteOrder.LITTLE_ENDIAN);
+            fourCc(frame, "00dc").putInt(encoded.length).put(encoded);
+            fourCc(index, "00dc").putInt(AVIIF_KEYFRAME).putInt((int) moviBytes).putInt(encoded.length);
+            channel.write(frame.position(0));
+            moviBytes += frame.capacity();
+            maxFrameBytes = Math.max(maxFrameBytes, encoded.length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                ByteBuffer idx1 = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+                fourCc(idx1, "idx1").putInt(index.position());
+                channel.write(idx1.flip());
+                channel.write(index.flip());
+
+                ByteBuffer size = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                channel.write(size.putInt(0, (int) (channel.size() - 8)), 4);
+                channel.write(size.putInt(0, (int) moviBytes).position(0), HEADER_BYTES - 8);
+                // Suggested buffer sizes in avih and strh
+                channel.write(size.putInt(0, maxFrameBytes + 8).position(0), 60);
+                channel.write(size.putInt(0, maxFrameBytes + 8).position(0), 144);
+            }
+        }
+
+        private static ByteBuffer fourCc(ByteBuffer buffer, String code) {
+            return buffer.put(code.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Flight Recorder events for lining sorting runs, their phases and render frames up
+// with GC, safepoints and FX pulses in Mission Control. All are off unless a recording
+// enables them (for example -XX:StartFlightRecording:settings=profile); disabled,
+// begin() and the shouldCommit() guards are JIT-compiled away along with the fields.
+final class VisualizerEvents {
+    private static final String CATEGORY = "Algorithm Visualizer";
+
+    private VisualizerEvents() {
+    }
+
+    @Name("algovis.Run")
+    @Label("Sort Run")
+    @Category(CATEGORY)
+    @Description("One run of a sorting algorithm, from Start until it finishes or is stopped")
+    static final class Run extends Event {
+        @Label("Algorithm")
+        String algorithm;
+
+        @Label("Size")
+        int size;
+
+        @Label("Distribution")
+        String distribution;
+
+        @Label("Seed")
+        long seed;
+
+        @Label("Threads")
+        int threads;
+
+        @Label("Verified")
+        @Description("Whether the output was checked to be a sorted permutation of the input")
+        boolean verified;
+
+        void commit(String algorithm, int size, String distribution, long seed, int threads, boolean verified) {
+            if (shouldCommit()) {
+                this.algorithm = algorithm;
+                this.size = size;
+                this.distribution = distribution;
+                this.seed = seed;
+                this.threads = threads;
+                this.verified = verified;
+                commit();
+            }
+        }
+    }
+
+    @Name("algovis.Phase")
+    @Label("Algorithm Phase")
+    @Category(CATEGORY)
+    @Description("A partition, merge, heap or sample sort phase over the index range [from, to)")
+    static final class Phase extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("From")
+        int from;
+
+        @Label("To")
+        int to;
+
+        void commit(String phase, int from, int to) {
+            if (shouldCommit()) {
+                this.phase = phase;
+                this.from = from;
+                this.to = to;
+                commit();
+            }
+        }
+    }
+
+    @Name("algovis.Frame")
+    @Label("Render Frame")
+    @Category(CATEGORY)
+    @Description("Drawing of the array onto the canvas on the FX thread")
+    static final class Frame extends Event {
+        @Label("Bars Drawn")
+        int bars;
+
+        @Label("Pending Frames")
+        @Description("Frames still queued in the FrameChannel ring behind this one")
+        int pendingFrames;
+
+        void commit(int bars, int pendingFrames) {
+            if (shouldCommit()) {
+                this.bars = bars;
+                this.pendingFrames = pendingFrames;
+                commit();
+            }
+        }
+    }
+
+    static Phase beginPhase() {
+        Phase phase = new Phase();
+        phase.begin();
+        return phase;
+    }
+}